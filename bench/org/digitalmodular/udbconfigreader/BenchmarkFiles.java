@@ -0,0 +1,49 @@
+package org.digitalmodular.udbconfigreader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.digitalmodular.utilities.annotation.UtilityClass;
+
+/**
+ * Writes the configuration files that the benchmarks load, to a temporary directory.
+ *
+ * @author Zom-B
+ */
+// Created 2026-10-19
+@UtilityClass
+final class BenchmarkFiles {
+	private BenchmarkFiles() {
+		throw new AssertionError();
+	}
+
+	/**
+	 * Generates a corpus with default settings, except for the file size, into a new temporary directory.
+	 *
+	 * @return the main file
+	 */
+	static Path createCorpus(int targetFileSize) throws IOException {
+		Path directory = Files.createTempDirectory("udbconfigreader-benchmark");
+
+		return new ConfigCorpusGenerator().setTargetFileSize(targetFileSize).generate(directory);
+	}
+
+	/**
+	 * Deletes the directory of the file created by {@link #createCorpus(int)}, and everything in it.
+	 */
+	static void deleteCorpus(Path file) throws IOException {
+		try (Stream<Path> paths = Files.walk(file.getParent())) {
+			paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+				try {
+					Files.delete(path);
+				} catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+			});
+		}
+	}
+}
@@ -0,0 +1,270 @@
+package org.digitalmodular.udbconfigreader;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.digitalmodular.utilities.ValidatorUtilities.requireAtLeast;
+import static org.digitalmodular.utilities.ValidatorUtilities.requireNonNull;
+
+/**
+ * Writes synthetic configuration file trees, for benchmarks and stress tests at arbitrary scales.
+ * <p>
+ * Each file consists of top-level blocks named {@code section0}, {@code section1}, etc., until the file reaches the
+ * target size. Each block has a number of entries and nested blocks, down to the nesting depth.
+ * Files above the include depth get one block per included file, named {@code include0}, {@code include1}, etc.,
+ * each containing an {@code include()} of either the entire file or its {@code section0}.
+ * <p>
+ * All keys within a block are unique, so the structure of the loaded configuration mirrors the generated text.
+ * The output is deterministic for a given seed.
+ *
+ * @author Zom-B
+ */
+// Created 2026-10-19
+public final class ConfigCorpusGenerator {
+	private static final String[] WORDS = {
+			"door", "lift", "teleport", "monster", "player", "start", "shotgun", "imp", "zombie", "sector",
+			"linedef", "sidedef", "thing", "texture", "flat", "light", "damage", "secret", "exit", "switch"};
+
+	private int     targetFileSize  = 64 * 1024;
+	private int     keysPerBlock    = 8;
+	private int     childBlocks     = 2;
+	private int     nestingDepth    = 2;
+	private double  stringFraction  = 0.5;
+	private double  commentDensity  = 0.1;
+	private double  escapeFrequency = 0.1;
+	private int     includeFanOut   = 2;
+	private int     includeDepth    = 1;
+	private boolean sectionIncludes = false;
+	private long    seed            = 0;
+
+	private int fileCount = 0;
+
+	/**
+	 * Sets the approximate size of each file in bytes. Each file gets at least one top-level block, however large.
+	 */
+	public ConfigCorpusGenerator setTargetFileSize(int targetFileSize) {
+		this.targetFileSize = requireAtLeast(0, targetFileSize, "targetFileSize");
+		return this;
+	}
+
+	public ConfigCorpusGenerator setKeysPerBlock(int keysPerBlock) {
+		this.keysPerBlock = requireAtLeast(0, keysPerBlock, "keysPerBlock");
+		return this;
+	}
+
+	/**
+	 * Sets the number of nested blocks in each block above the nesting depth.
+	 */
+	public ConfigCorpusGenerator setChildBlocks(int childBlocks) {
+		this.childBlocks = requireAtLeast(0, childBlocks, "childBlocks");
+		return this;
+	}
+
+	/**
+	 * Sets the number of levels of blocks below each top-level block.
+	 */
+	public ConfigCorpusGenerator setNestingDepth(int nestingDepth) {
+		this.nestingDepth = requireAtLeast(0, nestingDepth, "nestingDepth");
+		return this;
+	}
+
+	/**
+	 * Sets the fraction of values that are strings. The others are numbers, booleans, and nulls.
+	 */
+	public ConfigCorpusGenerator setStringFraction(double stringFraction) {
+		this.stringFraction = requireFraction(stringFraction, "stringFraction");
+		return this;
+	}
+
+	/**
+	 * Sets the probability of a comment before each entry.
+	 */
+	public ConfigCorpusGenerator setCommentDensity(double commentDensity) {
+		this.commentDensity = requireFraction(commentDensity, "commentDensity");
+		return this;
+	}
+
+	/**
+	 * Sets the probability of an escape sequence after each word of a string.
+	 */
+	public ConfigCorpusGenerator setEscapeFrequency(double escapeFrequency) {
+		this.escapeFrequency = requireFraction(escapeFrequency, "escapeFrequency");
+		return this;
+	}
+
+	/**
+	 * Sets the number of files included by each file above the include depth.
+	 */
+	public ConfigCorpusGenerator setIncludeFanOut(int includeFanOut) {
+		this.includeFanOut = requireAtLeast(0, includeFanOut, "includeFanOut");
+		return this;
+	}
+
+	/**
+	 * Sets the number of levels of included files below the main file. The number of files grows exponentially
+	 * with this.
+	 */
+	public ConfigCorpusGenerator setIncludeDepth(int includeDepth) {
+		this.includeDepth = requireAtLeast(0, includeDepth, "includeDepth");
+		return this;
+	}
+
+	/**
+	 * Sets whether includes select {@code section0} of the included file, instead of including the entire file.
+	 */
+	public ConfigCorpusGenerator setSectionIncludes(boolean sectionIncludes) {
+		this.sectionIncludes = sectionIncludes;
+		return this;
+	}
+
+	public ConfigCorpusGenerator setSeed(long seed) {
+		this.seed = seed;
+		return this;
+	}
+
+	/**
+	 * Writes the file tree into the directory, overwriting existing files.
+	 *
+	 * @return the main file, which includes (directly or indirectly) all other files.
+	 */
+	public Path generate(Path directory) throws IOException {
+		requireNonNull(directory, "directory");
+
+		fileCount = 0;
+		return generateFile(directory, "main", 0, new Random(seed));
+	}
+
+	/**
+	 * Returns the number of files written by the last call to {@link #generate(Path)}.
+	 */
+	public int getFileCount() {
+		return fileCount;
+	}
+
+	private Path generateFile(Path directory, String baseName, int level, Random random) throws IOException {
+		StringBuilder sb = new StringBuilder(targetFileSize + 1024);
+		sb.append("// Generated configuration file, include level ").append(level).append('\n');
+
+		if (level < includeDepth) {
+			for (int i = 0; i < includeFanOut; i++) {
+				String childName = baseName + '_' + i;
+				generateFile(directory, childName, level + 1, random);
+
+				sb.append("include").append(i).append("\n{\n\tinclude(\"").append(childName).append(".cfg");
+				if (sectionIncludes)
+					sb.append("\", \"section0");
+				sb.append("\");\n}\n");
+			}
+		}
+
+		int section = 0;
+		do {
+			sb.append("section").append(section++).append('\n');
+			appendBlock(sb, 0, random);
+		} while (sb.length() < targetFileSize);
+
+		Path file = directory.resolve(baseName + ".cfg");
+		Files.write(file, sb.toString().getBytes(StandardCharsets.US_ASCII));
+		fileCount++;
+		return file;
+	}
+
+	private void appendBlock(StringBuilder sb, int depth, Random random) {
+		appendIndentation(sb, depth);
+		sb.append("{\n");
+
+		for (int i = 0; i < keysPerBlock; i++) {
+			appendComment(sb, depth + 1, random);
+			appendIndentation(sb, depth + 1);
+			sb.append("key").append(i);
+			appendValue(sb, random);
+			sb.append(";\n");
+		}
+
+		if (depth < nestingDepth) {
+			for (int i = 0; i < childBlocks; i++) {
+				appendComment(sb, depth + 1, random);
+				appendIndentation(sb, depth + 1);
+				sb.append("block").append(i).append('\n');
+				appendBlock(sb, depth + 1, random);
+			}
+		}
+
+		appendIndentation(sb, depth);
+		sb.append("}\n");
+	}
+
+	private void appendValue(StringBuilder sb, Random random) {
+		if (random.nextDouble() < stringFraction) {
+			sb.append(" = \"");
+			int words = 1 + random.nextInt(6);
+			for (int i = 0; i < words; i++) {
+				if (i > 0)
+					sb.append(' ');
+
+				sb.append(WORDS[random.nextInt(WORDS.length)]);
+				if (random.nextDouble() < escapeFrequency)
+					sb.append(random.nextBoolean() ? "\\n" : random.nextBoolean() ? "\\\"" : "\\\\");
+			}
+
+			sb.append('"');
+			return;
+		}
+
+		switch (random.nextInt(6)) {
+			case 0:
+			case 1:
+				sb.append(" = ").append(random.nextInt(100000) - 1000);
+				break;
+			case 2:
+				sb.append(" = ").append(random.nextInt(1000)).append('.').append(random.nextInt(100)).append('f');
+				break;
+			case 3:
+				sb.append(" = ").append(random.nextInt(1000)).append('.').append(random.nextInt(10000));
+				break;
+			case 4:
+				sb.append(" = ").append(random.nextBoolean());
+				break;
+			default:
+				if (random.nextBoolean())
+					sb.append(" = null");
+		}
+	}
+
+	/**
+	 * Comments must not contain quotes, as strings are recognized before comments.
+	 */
+	private void appendComment(StringBuilder sb, int depth, Random random) {
+		if (random.nextDouble() >= commentDensity)
+			return;
+
+		appendIndentation(sb, depth);
+		boolean lineComment = random.nextBoolean();
+		sb.append(lineComment ? "// " : "/* ");
+
+		int words = 1 + random.nextInt(8);
+		for (int i = 0; i < words; i++) {
+			if (i > 0)
+				sb.append(!lineComment && random.nextInt(4) == 0 ? '\n' : ' ');
+
+			sb.append(WORDS[random.nextInt(WORDS.length)]);
+		}
+
+		sb.append(lineComment ? "\n" : " */\n");
+	}
+
+	private static void appendIndentation(StringBuilder sb, int depth) {
+		for (int i = 0; i < depth; i++)
+			sb.append('\t');
+	}
+
+	private static double requireFraction(double value, String name) {
+		if (!(value >= 0 && value <= 1))
+			throw new IllegalArgumentException('\'' + name + "' must be between 0 and 1: " + value);
+
+		return value;
+	}
+}
@@ -0,0 +1,89 @@
+package org.digitalmodular.udbconfigreader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks operations on a loaded {@code ConfigStruct}.
+ *
+ * @author Zom-B
+ */
+// Created 2026-10-19
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConfigStructBenchmark {
+	@Param({"10000", "1000000"})
+	public int fileSize;
+
+	private ConfigStruct configuration;
+	private String[]     keys;
+
+	@Setup
+	public void setUp() throws IOException {
+		Logger.getGlobal().setLevel(Level.WARNING);
+
+		Path file = BenchmarkFiles.createCorpus(fileSize);
+		try {
+			configuration = GameConfigurationIO.loadGameConfiguration(file);
+		} finally {
+			ConfigFileCache.INSTANCE.clear();
+			BenchmarkFiles.deleteCorpus(file);
+		}
+
+		// Every key, and as many keys that don't exist
+		List<String> keyList = new ArrayList<>(64);
+		for (Entry<String, Object> entry : configuration) {
+			keyList.add(entry.getKey());
+			keyList.add("missing" + keyList.size());
+		}
+
+		keys = keyList.toArray(new String[0]);
+	}
+
+	@TearDown
+	public void tearDown() {
+		ConfigFileCache.INSTANCE.clear();
+	}
+
+	@Benchmark
+	public void get(Blackhole blackhole) {
+		for (String key : keys)
+			blackhole.consume(configuration.get(key));
+	}
+
+	@Benchmark
+	public ConfigStruct putAll() {
+		ConfigStruct copy = new ConfigStruct(configuration.getName(), 16);
+		copy.putAll(configuration);
+		return copy;
+	}
+
+	@Benchmark
+	public String toStringBenchmark() {
+		return configuration.toString();
+	}
+}
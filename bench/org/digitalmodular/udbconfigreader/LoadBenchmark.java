@@ -0,0 +1,65 @@
+package org.digitalmodular.udbconfigreader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link GameConfigurationIO#loadGameConfiguration(Path)} of a file tree with includes,
+ * both when nothing is cached (reading and parsing every file) and when everything is cached.
+ *
+ * @author Zom-B
+ */
+// Created 2026-10-19
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoadBenchmark {
+	@Param({"10000", "1000000"})
+	public int fileSize;
+
+	private Path file;
+
+	@Setup
+	public void setUp() throws IOException {
+		// Every uncached load logs a line per file
+		Logger.getGlobal().setLevel(Level.WARNING);
+
+		file = BenchmarkFiles.createCorpus(fileSize);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		ConfigFileCache.INSTANCE.clear();
+		BenchmarkFiles.deleteCorpus(file);
+	}
+
+	@Benchmark
+	public ConfigStruct loadCold() throws IOException {
+		ConfigFileCache.INSTANCE.clear();
+		return GameConfigurationIO.loadGameConfiguration(file);
+	}
+
+	@Benchmark
+	public ConfigStruct loadCached() throws IOException {
+		return GameConfigurationIO.loadGameConfiguration(file);
+	}
+}
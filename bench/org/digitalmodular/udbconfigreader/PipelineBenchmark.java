@@ -0,0 +1,118 @@
+package org.digitalmodular.udbconfigreader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.digitalmodular.udbconfigreader.lexer.CleaningLexer;
+import org.digitalmodular.udbconfigreader.lexer.CommentsLexer;
+import org.digitalmodular.udbconfigreader.lexer.ConfigToken;
+import org.digitalmodular.udbconfigreader.lexer.ConfigTokenizer;
+import org.digitalmodular.udbconfigreader.lexer.KeywordLexer;
+import org.digitalmodular.udbconfigreader.lexer.StringsLexer;
+
+/**
+ * Benchmarks each stage of loading one file in isolation, each stage getting the output of the previous stage
+ * (prepared in advance) as input.
+ *
+ * @author Zom-B
+ */
+// Created 2026-10-19
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PipelineBenchmark {
+	@Param({"10000", "1000000"})
+	public int fileSize;
+
+	private Path              file;
+	private List<String>      lines;
+	private List<ConfigToken> rawTokens;
+	private List<ConfigToken> stringTokens;
+	private List<ConfigToken> commentTokens;
+	private List<ConfigToken> keywordTokens;
+	private List<ConfigToken> tokens;
+
+	@Setup
+	public void setUp() throws IOException {
+		file = BenchmarkFiles.createCorpus(fileSize);
+		lines = Files.readAllLines(file);
+
+		rawTokens = ConfigTokenizer.tokenize(new CharacterReader(file.getFileName().toString(), lines));
+		stringTokens = StringsLexer.process(rawTokens);
+		commentTokens = CommentsLexer.process(stringTokens);
+		keywordTokens = KeywordLexer.process(commentTokens);
+		tokens = CleaningLexer.process(keywordTokens);
+
+		// Let parseTokens() take the includes from the cache
+		ConfigFileCache.INSTANCE.clear();
+		parseTokens();
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		ConfigFileCache.INSTANCE.clear();
+		BenchmarkFiles.deleteCorpus(file);
+	}
+
+	@Benchmark
+	public int characterReader() {
+		CharacterReader reader = new CharacterReader(file.getFileName().toString(), lines);
+
+		int count = 0;
+		while (reader.nextChar() >= 0)
+			count++;
+
+		return count;
+	}
+
+	@Benchmark
+	public List<ConfigToken> tokenizer() {
+		return ConfigTokenizer.tokenize(new CharacterReader(file.getFileName().toString(), lines));
+	}
+
+	@Benchmark
+	public List<ConfigToken> stringsLexer() {
+		return StringsLexer.process(rawTokens);
+	}
+
+	@Benchmark
+	public List<ConfigToken> commentsLexer() {
+		return CommentsLexer.process(stringTokens);
+	}
+
+	@Benchmark
+	public List<ConfigToken> keywordLexer() {
+		return KeywordLexer.process(commentTokens);
+	}
+
+	@Benchmark
+	public List<ConfigToken> cleaningLexer() {
+		return CleaningLexer.process(keywordTokens);
+	}
+
+	@Benchmark
+	public ConfigStruct parseTokens() {
+		ConfigStruct configuration = new ConfigStruct(file.toString(), 16);
+		new RecursiveConfigFileLoader().parseTokens(file, configuration, tokens.iterator());
+		return configuration;
+	}
+}
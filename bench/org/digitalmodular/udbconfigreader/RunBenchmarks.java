@@ -0,0 +1,45 @@
+package org.digitalmodular.udbconfigreader;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks, by default all of them with the GC profiler, which adds the allocation rate to the throughput.
+ * <p>
+ * The arguments are regular JMH command line options. A regular expression selects benchmarks instead of running
+ * all of them, and {@code -prof} selects profilers instead of the GC profiler. {@code -l} lists the selected
+ * benchmarks, and {@code -h} shows all options.
+ *
+ * @author Zom-B
+ */
+// Created 2026-10-19
+public final class RunBenchmarks {
+	private RunBenchmarks() {
+		throw new AssertionError();
+	}
+
+	public static void main(String... args) throws CommandLineOptionException, RunnerException, IOException {
+		CommandLineOptions    commandLineOptions = new CommandLineOptions(args);
+		ChainedOptionsBuilder options            = new OptionsBuilder().parent(commandLineOptions);
+
+		// Includes and profilers of the parent are merged with these, so only add them as defaults
+		if (commandLineOptions.getIncludes().isEmpty())
+			options.include(RunBenchmarks.class.getPackage().getName() + ".*Benchmark");
+		if (commandLineOptions.getProfilers().isEmpty())
+			options.addProfiler(GCProfiler.class);
+
+		if (commandLineOptions.shouldHelp())
+			commandLineOptions.showHelp();
+		else if (commandLineOptions.shouldList())
+			new Runner(options.build()).list();
+		else
+			new Runner(options.build()).run();
+	}
+}
@@ -1,7 +1,9 @@
 package org.digitalmodular.udbconfigreader;
 
+import java.util.Arrays;
 import java.util.List;
 
+import static org.digitalmodular.utilities.ValidatorUtilities.requireAtLeast;
 import static org.digitalmodular.utilities.ValidatorUtilities.requireNonNull;
 
 /**
@@ -15,13 +17,19 @@ import static org.digitalmodular.utilities.ValidatorUtilities.requireNonNull;
  * Before the first character is read, the location is indeterminate.
  * If the provided list of lines is empty, the location remains indeterminate,
  * even after calling {@link #nextChar()}.
+ * <p>
+ * When the lines are a fragment of a larger text, the location of the first character can be specified,
+ * so reported locations are relative to the larger text.
  *
  * @author Zom-B
  */
 // Created 2021-08-09
 public class CharacterReader {
-	private final String   source;
-	private final String[] lines;
+	private String   source;
+	private String[] lines;
+	private int      lineCount;
+	private int      firstLineNumber;
+	private int      firstColumn;
 
 	private int lineNumber = 0;
 	private int column     = -1;
@@ -30,16 +38,48 @@ public class CharacterReader {
 	private int storedColumn     = 0;
 
 	public CharacterReader(String source, List<String> lines) {
+		this(source, lines, 1, 1);
+	}
+
+	/**
+	 * @param firstLineNumber the line number of the first line
+	 * @param firstColumn     the column of the first character of the first line
+	 */
+	public CharacterReader(String source, List<String> lines, int firstLineNumber, int firstColumn) {
 		this.source = requireNonNull(source, "sourceName");
 		requireNonNull(lines, "lines");
 		this.lines = lines.toArray(new String[0]);
+		lineCount = this.lines.length;
+		this.firstLineNumber = requireAtLeast(1, firstLineNumber, "firstLineNumber");
+		this.firstColumn = requireAtLeast(1, firstColumn, "firstColumn");
+	}
+
+	/**
+	 * Starts reading other lines, as if this instance was newly constructed with them.
+	 * The line array is reused when it's large enough.
+	 */
+	public void reset(String source, List<String> lines) {
+		this.source = requireNonNull(source, "sourceName");
+		requireNonNull(lines, "lines");
+		int previousLineCount = lineCount;
+		this.lines = lines.toArray(this.lines);
+		lineCount = lines.size();
+		if (previousLineCount > lineCount && this.lines.length >= previousLineCount)
+			Arrays.fill(this.lines, lineCount, previousLineCount, null); // Don't retain the previous text
+		firstLineNumber = 1;
+		firstColumn = 1;
+
+		lineNumber = 0;
+		column = -1;
+		storedLineNumber = 0;
+		storedColumn = 0;
 	}
 
 	/**
 	 * Returns the next char, or {@code -1} if there are none.
 	 */
 	public int nextChar() {
-		if (lineNumber >= lines.length) {
+		if (lineNumber >= lineCount) {
 			return -1;
 		}
 
@@ -49,9 +89,9 @@ public class CharacterReader {
 			column = 0;
 		}
 
-		if (lineNumber >= lines.length)
+		if (lineNumber >= lineCount)
 			return -1; // End of everything
-		else if (lineNumber == lines.length - 1 && column == lines[lineNumber].length())
+		else if (lineNumber == lineCount - 1 && column == lines[lineNumber].length())
 			return -1; // End of last line
 		else if (column == lines[lineNumber].length())
 			return '\n'; // End of any line that's not the last
@@ -67,14 +107,14 @@ public class CharacterReader {
 		if (column < 0)
 			throw new IllegalStateException("No character has been read yet.");
 
-		return lineNumber + 1;
+		return lineNumber + firstLineNumber;
 	}
 
 	public int getColumn() {
 		if (column < 0)
 			throw new IllegalStateException("No character has been read yet.");
 
-		return column + 1;
+		return lineNumber == 0 ? column + firstColumn : column + 1;
 	}
 
 	public void markLocation() {
@@ -86,13 +126,13 @@ public class CharacterReader {
 		if (column < 0)
 			throw new IllegalStateException("No character has been read yet.");
 
-		return storedLineNumber + 1;
+		return storedLineNumber + firstLineNumber;
 	}
 
 	public int getMarkedColumn() {
 		if (column < 0)
 			throw new IllegalStateException("No character has been read yet.");
 
-		return storedColumn + 1;
+		return storedLineNumber == 0 ? storedColumn + firstColumn : storedColumn + 1;
 	}
 }
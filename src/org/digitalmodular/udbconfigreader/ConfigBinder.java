@@ -0,0 +1,286 @@
+package org.digitalmodular.udbconfigreader;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.function.Function;
+
+import org.jetbrains.annotations.Nullable;
+
+import static org.digitalmodular.utilities.ValidatorUtilities.requireNonNull;
+
+/**
+ * Copies the values of {@code ConfigStruct} structures into records.
+ * <p>
+ * Each record component is read from the key with the same name, or the key given by {@link ConfigKey}.
+ * A component annotated with {@link ConfigName} receives the name of the struct instead.
+ * When the key is missing or {@code null}, the component gets the value of {@link ConfigDefault}, or {@code null}.
+ * Primitive components without a default are required.
+ * <p>
+ * Values are converted to the type of the component:
+ * <ul><li>{@code int}, {@code long}, {@code float}, {@code double} and their wrappers accept numbers and numeric
+ * strings. Integer types don't accept fractions.</li>
+ * <li>{@code boolean} and {@code Boolean} accept booleans and the strings {@code "true"} and {@code "false"}.</li>
+ * <li>{@code String} accepts strings, and numbers and booleans in their textual form.</li>
+ * <li>Records accept structs, which are bound recursively. Unlike the rest of the library, this uses the call stack,
+ * so records that contain themselves can bind trees up to a few thousand levels deep.</li>
+ * <li>{@code ConfigStruct} and {@code Object} accept anything, as it is.</li></ul>
+ * <p>
+ * The record is inspected once, when the binder is created, and binders are cached per record class.
+ * Binding itself is one lookup and one conversion per component, followed by a call to the canonical constructor
+ * through a {@code MethodHandle}, without reflection. Binders are immutable and can be shared between threads.
+ *
+ * @param <T> the record type
+ * @author Zom-B
+ */
+// Created 2026-10-19
+public final class ConfigBinder<T extends Record> {
+	private static final ClassValue<ConfigBinder<?>> BINDERS = new ClassValue<>() {
+		@Override
+		protected ConfigBinder<?> computeValue(Class<?> type) {
+			return new ConfigBinder<>(type.asSubclass(Record.class));
+		}
+	};
+
+	private static final class Component {
+		private final String                   key;
+		private final boolean                  name;
+		private final Function<Object, Object> converter;
+		private final @Nullable Object         defaultValue;
+		private final boolean                  required;
+
+		private Component(String key,
+		                  boolean name,
+		                  Function<Object, Object> converter,
+		                  @Nullable Object defaultValue,
+		                  boolean required) {
+			this.key = key;
+			this.name = name;
+			this.converter = converter;
+			this.defaultValue = defaultValue;
+			this.required = required;
+		}
+	}
+
+	private final Class<T>     type;
+	private final Component[]  components;
+	/**
+	 * The canonical constructor, adapted to the type {@code (Object[])Object}.
+	 */
+	private final MethodHandle constructor;
+
+	private ConfigBinder(Class<T> type) {
+		this.type = type;
+
+		RecordComponent[] recordComponents = type.getRecordComponents();
+		Class<?>[]        parameterTypes   = new Class<?>[recordComponents.length];
+		components = new Component[recordComponents.length];
+		for (int i = 0; i < recordComponents.length; i++) {
+			parameterTypes[i] = recordComponents[i].getType();
+			components[i] = createComponent(recordComponents[i]);
+		}
+
+		try {
+			Constructor<T> canonicalConstructor = type.getDeclaredConstructor(parameterTypes);
+			canonicalConstructor.setAccessible(true);
+			constructor = MethodHandles.lookup()
+			                           .unreflectConstructor(canonicalConstructor)
+			                           .asSpreader(Object[].class, parameterTypes.length)
+			                           .asType(MethodType.methodType(Object.class, Object[].class));
+		} catch (ReflectiveOperationException | RuntimeException ex) {
+			throw new IllegalArgumentException("Can't access the constructor of " + type.getName(), ex);
+		}
+	}
+
+	/**
+	 * Returns the binder for the record class, creating it on first use.
+	 *
+	 * @throws IllegalArgumentException when the class is not a record, or a component has an unsupported type or an
+	 *                                  invalid default.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T extends Record> ConfigBinder<T> of(Class<T> type) {
+		if (!requireNonNull(type, "type").isRecord())
+			throw new IllegalArgumentException("'type' is not a record: " + type.getName());
+
+		return (ConfigBinder<T>)BINDERS.get(type);
+	}
+
+	public Class<T> getType() {
+		return type;
+	}
+
+	/**
+	 * Creates a record from the values of the struct.
+	 *
+	 * @throws IllegalArgumentException when a required value is missing, or a value can't be converted.
+	 */
+	public T bind(ConfigStruct struct) {
+		requireNonNull(struct, "struct");
+
+		Object[] arguments = new Object[components.length];
+		for (int i = 0; i < components.length; i++) {
+			Component component = components[i];
+
+			@Nullable Object value = component.name ? struct.getName() : struct.get(component.key);
+			if (value == null) {
+				if (component.required)
+					throw new IllegalArgumentException("Missing '" + component.key + "' in " + struct.getName());
+
+				arguments[i] = component.defaultValue;
+				continue;
+			}
+
+			try {
+				arguments[i] = component.converter.apply(value);
+			} catch (IllegalArgumentException ex) {
+				throw new IllegalArgumentException("Can't bind '" + component.key + "' in " + struct.getName() +
+				                                   ": " + ex.getMessage(), ex);
+			}
+		}
+
+		try {
+			return type.cast((Object)constructor.invokeExact(arguments));
+		} catch (RuntimeException | Error ex) {
+			throw ex;
+		} catch (Throwable th) {
+			throw new IllegalArgumentException("Constructor of " + type.getName() + " failed", th);
+		}
+	}
+
+	/**
+	 * Creates a record from each struct in the table, in order, for example from each thing type of a category.
+	 * Entries that are not structs are skipped.
+	 */
+	public List<T> bindAll(ConfigStruct table) {
+		requireNonNull(table, "table");
+
+		List<T> records = new ArrayList<>(table.getValues().size());
+		for (Entry<String, Object> entry : table)
+			if (entry.getValue() instanceof ConfigStruct)
+				records.add(bind((ConfigStruct)entry.getValue()));
+
+		return records;
+	}
+
+	private static Component createComponent(RecordComponent recordComponent) {
+		Class<?>                componentType     = recordComponent.getType();
+		@Nullable ConfigKey     keyAnnotation     = recordComponent.getAnnotation(ConfigKey.class);
+		@Nullable ConfigDefault defaultAnnotation = recordComponent.getAnnotation(ConfigDefault.class);
+		boolean                 name              = recordComponent.isAnnotationPresent(ConfigName.class);
+
+		// For name components, the key only appears in error messages
+		String key = keyAnnotation != null && !name ? keyAnnotation.value() : recordComponent.getName();
+
+		Function<Object, Object> converter = converterFor(componentType, key);
+
+		@Nullable Object defaultValue = null;
+		if (defaultAnnotation != null) {
+			try {
+				defaultValue = converter.apply(defaultAnnotation.value());
+			} catch (IllegalArgumentException ex) {
+				throw new IllegalArgumentException("Invalid default for '" + key + "' in " +
+				                                   recordComponent.getDeclaringRecord().getName() + ": " +
+				                                   ex.getMessage(), ex);
+			}
+		}
+
+		boolean required = componentType.isPrimitive() && defaultAnnotation == null;
+		return new Component(key, name, converter, defaultValue, required);
+	}
+
+	private static Function<Object, Object> converterFor(Class<?> componentType, String key) {
+		if (componentType == int.class || componentType == Integer.class) {
+			return ConfigBinder::toInt;
+		} else if (componentType == long.class || componentType == Long.class) {
+			return ConfigBinder::toLong;
+		} else if (componentType == float.class || componentType == Float.class) {
+			return ConfigBinder::toFloat;
+		} else if (componentType == double.class || componentType == Double.class) {
+			return ConfigBinder::toDouble;
+		} else if (componentType == boolean.class || componentType == Boolean.class) {
+			return ConfigBinder::toBoolean;
+		} else if (componentType == String.class) {
+			return value -> value instanceof ConfigStruct ? toText(value) : value.toString();
+		} else if (componentType.isRecord()) {
+			Class<? extends Record> recordType = componentType.asSubclass(Record.class);
+			// Looked up on use, so records can contain themselves
+			return value -> {
+				if (!(value instanceof ConfigStruct))
+					throw new IllegalArgumentException("Expected a block, got " + value);
+
+				return of(recordType).bind((ConfigStruct)value);
+			};
+		} else if (componentType == ConfigStruct.class) {
+			return value -> {
+				if (!(value instanceof ConfigStruct))
+					throw new IllegalArgumentException("Expected a block, got " + value);
+
+				return value;
+			};
+		} else if (componentType == Object.class) {
+			return Function.identity();
+		}
+
+		throw new IllegalArgumentException("Unsupported type for '" + key + "': " + componentType.getName());
+	}
+
+	private static Object toInt(Object value) {
+		if (value instanceof Integer)
+			return value;
+
+		long longValue = (Long)toLong(value);
+		if (longValue != (int)longValue)
+			throw new IllegalArgumentException("Out of range for an int: " + value);
+
+		return (int)longValue;
+	}
+
+	private static Object toLong(Object value) {
+		if (value instanceof Integer || value instanceof Long)
+			return ((Number)value).longValue();
+		else if (value instanceof Number)
+			throw new IllegalArgumentException("Expected an integer, got " + value);
+
+		return Long.parseLong(toText(value));
+	}
+
+	private static Object toFloat(Object value) {
+		if (value instanceof Number)
+			return ((Number)value).floatValue();
+
+		return Float.parseFloat(toText(value));
+	}
+
+	private static Object toDouble(Object value) {
+		if (value instanceof Number)
+			return ((Number)value).doubleValue();
+
+		return Double.parseDouble(toText(value));
+	}
+
+	private static Object toBoolean(Object value) {
+		if (value instanceof Boolean)
+			return value;
+
+		String text = toText(value);
+		if (text.equals("true"))
+			return Boolean.TRUE;
+		else if (text.equals("false"))
+			return Boolean.FALSE;
+
+		throw new IllegalArgumentException("Expected a boolean, got " + value);
+	}
+
+	private static String toText(Object value) {
+		if (value instanceof ConfigStruct)
+			throw new IllegalArgumentException("Expected a value, got a block: " + ((ConfigStruct)value).getName());
+
+		return value.toString();
+	}
+}
@@ -0,0 +1,46 @@
+package org.digitalmodular.udbconfigreader;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for a lookup in, or removal from, {@link ConfigFileCache}.
+ *
+ * @author Zom-B
+ */
+// Created 2026-10-19
+@Name("org.digitalmodular.udbconfigreader.Cache")
+@Label("Config Cache")
+@Category("UDB Config Reader")
+@StackTrace(false)
+final class ConfigCacheEvent extends Event {
+	static final String HIT      = "Hit";
+	static final String MISS     = "Miss";
+	static final String EVICTION = "Eviction";
+
+	@Label("Result")
+	@Description("Hit, Miss, or Eviction")
+	String result;
+
+	@Label("File")
+	String file;
+
+	@Label("Section")
+	@Description("The cached section, or empty for the entire file")
+	String section;
+
+	static void emit(String result, Object file, Object section) {
+		ConfigCacheEvent event = new ConfigCacheEvent();
+		if (!event.isEnabled())
+			return;
+
+		event.result = result;
+		event.file = file.toString();
+		event.section = section.toString();
+		event.commit();
+	}
+}
@@ -0,0 +1,23 @@
+package org.digitalmodular.udbconfigreader;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Sets the value that {@link ConfigBinder} uses for a record component when the key is missing or {@code null}.
+ * <p>
+ * The text is converted to the type of the component like a string value from the configuration would be,
+ * for example {@code @ConfigDefault("20") int width}.
+ *
+ * @author Zom-B
+ */
+// Created 2026-10-19
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.RECORD_COMPONENT)
+public @interface ConfigDefault {
+	String value();
+}
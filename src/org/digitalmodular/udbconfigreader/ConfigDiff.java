@@ -0,0 +1,188 @@
+package org.digitalmodular.udbconfigreader;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+import org.jetbrains.annotations.Nullable;
+
+import org.digitalmodular.utilities.annotation.UtilityClass;
+
+import static org.digitalmodular.utilities.ValidatorUtilities.requireNonNull;
+
+/**
+ * Compares two {@code ConfigStruct} trees, for example two loads of the same configuration file.
+ * <p>
+ * Subtrees with equal {@link ConfigStruct#getStructuralHash() structural hashes} are skipped without visiting them.
+ * When both trees are {@link ConfigStruct#freeze() frozen} these hashes are cached,
+ * so the cost of a diff grows with the parts that changed, not with the size of the trees.
+ *
+ * @author Zom-B
+ */
+// Created 2026-10-19
+@UtilityClass
+public final class ConfigDiff {
+	public enum ChangeType {
+		ADDED,
+		REMOVED,
+		MODIFIED
+	}
+
+	/**
+	 * A single difference between two trees.
+	 * <p>
+	 * When a struct is added or removed, only the struct itself is reported, not its contents.
+	 */
+	public static final class Change {
+		private final String           path;
+		private final ChangeType       changeType;
+		private final @Nullable Object oldValue;
+		private final @Nullable Object newValue;
+
+		Change(String path, ChangeType changeType, @Nullable Object oldValue, @Nullable Object newValue) {
+			this.path = path;
+			this.changeType = changeType;
+			this.oldValue = oldValue;
+			this.newValue = newValue;
+		}
+
+		/**
+		 * Returns the keys leading to the changed entry, separated by dots.
+		 */
+		public String getPath() {
+			return path;
+		}
+
+		public ChangeType getChangeType() {
+			return changeType;
+		}
+
+		public @Nullable Object getOldValue() {
+			return oldValue;
+		}
+
+		public @Nullable Object getNewValue() {
+			return newValue;
+		}
+
+		@Override
+		public String toString() {
+			switch (changeType) {
+				case ADDED:
+					return "+ " + path + " = " + describe(newValue);
+				case REMOVED:
+					return "- " + path + " = " + describe(oldValue);
+				default:
+					return "* " + path + " = " + describe(oldValue) + " -> " + describe(newValue);
+			}
+		}
+
+		private static String describe(@Nullable Object value) {
+			if (value instanceof ConfigStruct)
+				return "{...}";
+
+			return String.valueOf(value);
+		}
+	}
+
+	/**
+	 * A pair of structs being compared. Reports the removed entries on creation,
+	 * after which the entries of the new struct are compared one by one.
+	 */
+	private static final class Frame {
+		private final ConfigStruct                    oldStruct;
+		private final Iterator<Entry<String, Object>> newEntries;
+		private final @Nullable Frame                 parent;
+		private final @Nullable String                key;
+
+		private Frame(ConfigStruct oldStruct,
+		              ConfigStruct newStruct,
+		              @Nullable Frame parent,
+		              @Nullable String key,
+		              List<Change> changes) {
+			this.oldStruct = oldStruct;
+			this.parent = parent;
+			this.key = key;
+
+			for (Entry<String, Object> entry : oldStruct)
+				if (!newStruct.containsKey(entry.getKey()))
+					changes.add(new Change(pathTo(entry.getKey()), ChangeType.REMOVED, entry.getValue(), null));
+
+			newEntries = newStruct.iterator();
+		}
+
+		/**
+		 * Returns the path of an entry in the structs of this frame.
+		 */
+		private String pathTo(String childKey) {
+			List<String> keys = new ArrayList<>(8);
+			keys.add(childKey);
+			for (@Nullable Frame frame = this; frame != null && frame.key != null; frame = frame.parent)
+				keys.add(frame.key);
+
+			Collections.reverse(keys);
+			return String.join(".", keys);
+		}
+	}
+
+	private ConfigDiff() {
+		throw new AssertionError();
+	}
+
+	/**
+	 * Returns all differences between two trees, depth-first.
+	 * <p>
+	 * Within each pair of structs, the removed entries come first, in the order of {@code oldStruct},
+	 * followed by the other changes in the order of {@code newStruct}. The changes inside a struct that's in both trees
+	 * are listed at the position of that struct.
+	 */
+	public static List<Change> diff(ConfigStruct oldStruct, ConfigStruct newStruct) {
+		requireNonNull(oldStruct, "oldStruct");
+		requireNonNull(newStruct, "newStruct");
+
+		List<Change> changes = new ArrayList<>(16);
+		if (oldStruct.getStructuralHash() == newStruct.getStructuralHash())
+			return changes;
+
+		// Depth-first with an explicit stack, so arbitrarily deep trees can be compared.
+		// Paths are only built for changes, as building them for every level would be quadratic in the depth.
+		Deque<Frame> frames = new ArrayDeque<>(16);
+		frames.push(new Frame(oldStruct, newStruct, null, null, changes));
+
+		while (!frames.isEmpty()) {
+			Frame frame = frames.getFirst();
+			if (!frame.newEntries.hasNext()) {
+				frames.pop();
+				continue;
+			}
+
+			Entry<String, Object> entry    = frame.newEntries.next();
+			String                key      = entry.getKey();
+			@Nullable Object      newValue = entry.getValue();
+
+			if (!frame.oldStruct.containsKey(key)) {
+				changes.add(new Change(frame.pathTo(key), ChangeType.ADDED, null, newValue));
+				continue;
+			}
+
+			@Nullable Object oldValue = frame.oldStruct.get(key);
+			if (oldValue instanceof ConfigStruct && newValue instanceof ConfigStruct) {
+				ConfigStruct oldChild = (ConfigStruct)oldValue;
+				ConfigStruct newChild = (ConfigStruct)newValue;
+				// Hashes are only compared when cached, as hashing every level would be quadratic in the depth
+				boolean cached = oldChild.isFrozen() && newChild.isFrozen();
+				if (oldChild != newChild && (!cached || oldChild.getStructuralHash() != newChild.getStructuralHash()))
+					frames.push(new Frame(oldChild, newChild, frame, key, changes));
+			} else if (!Objects.equals(oldValue, newValue)) {
+				changes.add(new Change(frame.pathTo(key), ChangeType.MODIFIED, oldValue, newValue));
+			}
+		}
+
+		return changes;
+	}
+}
@@ -0,0 +1,43 @@
+package org.digitalmodular.udbconfigreader;
+
+import java.nio.file.Path;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Receives the contents of a configuration file as a sequence of events, in the order they appear in the file.
+ * <p>
+ * This is an alternative to loading the file as a {@code ConfigStruct}, for consumers that don't need the tree.
+ * No structures are built, and entries with the same key are reported each time they appear instead of being
+ * merged.
+ * <p>
+ * Includes are reported with {@link #onInclude(Path, String)}, but not followed.
+ *
+ * @author Zom-B
+ * @see RecursiveConfigFileLoader#visitConfigurationFile(Path, ConfigEventHandler)
+ */
+// Created 2026-10-19
+public interface ConfigEventHandler {
+	/**
+	 * Called for {@code name { ...}}. Events for the contents of the block follow, then {@link #onBlockEnd()}.
+	 */
+	void onBlockStart(String name);
+
+	/**
+	 * Called for {@code key = value;} and {@code key;}.
+	 *
+	 * @param value a {@code String}, {@code Integer}, {@code Float}, {@code Double}, {@code Boolean},
+	 *              or {@code null}
+	 */
+	void onValue(String key, @Nullable Object value);
+
+	void onBlockEnd();
+
+	/**
+	 * Called for {@code include("file", "section");}.
+	 *
+	 * @param file    the included file, resolved against the directory of the file containing the include.
+	 * @param section the requested section, or the empty string when the entire file is included.
+	 */
+	void onInclude(Path file, String section);
+}
@@ -1,31 +1,189 @@
 package org.digitalmodular.udbconfigreader;
 
+import java.nio.file.FileSystem;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 
 import org.jetbrains.annotations.Nullable;
 
-import org.digitalmodular.utilities.annotation.Singleton;
+import static org.digitalmodular.utilities.ValidatorUtilities.requireNonNull;
 
 /**
  * Caches parsed config files, so multiple calls to {@code include()} with
  * the same filename won't cause that file to be parsed multiple times.
+ * <p>
+ * Files of which only one section was parsed are cached per section, until the whole file is cached.
+ * <p>
+ * Files are identified by their absolute, normalized path. Paths of different file systems (for example of different
+ * zip archives) are always different, even if their text is the same.
+ * <p>
+ * This class is thread-safe, but the cached structures are shared as they are, so they can only be used by multiple
+ * threads once they're {@link ConfigStruct#freeze() frozen}.
+ * <p>
+ * Loaders share {@link #INSTANCE}, except where the loaded structures must not be shared with other loads,
+ * like in {@link ConfigHandle}, which uses a private cache for each load, and {@link IncrementalConfigSession},
+ * which uses one for its lifetime.
  *
  * @author Zom-B
  */
 // Created 2021-08-15
-@Singleton
-public enum ConfigFileCache {
-	INSTANCE;
+public final class ConfigFileCache {
+	public static final ConfigFileCache INSTANCE = new ConfigFileCache();
 
-	private final Map<Path, ConfigStruct> cache = new HashMap<>(256);
+	private final boolean freezeEntries;
 
-	public void add(Path file, ConfigStruct configStruct) {
-		cache.put(file, configStruct);
+	private final Map<Path, ConfigStruct>                   cache        = new HashMap<>(256);
+	private final Map<Path, Map<ConfigPath, ConfigStruct>> sectionCache = new HashMap<>(64);
+
+	/**
+	 * Creates a private cache. Use {@link #INSTANCE} to share parsed files with other loads.
+	 */
+	ConfigFileCache() {
+		this(false);
+	}
+
+	/**
+	 * Creates a private cache.
+	 *
+	 * @param freezeEntries whether to freeze structures when they're added. Loads that include a frozen structure
+	 *                      copy it before merging into it, so they can't change what later loads get.
+	 */
+	ConfigFileCache(boolean freezeEntries) {
+		this.freezeEntries = freezeEntries;
+	}
+
+	public synchronized void add(Path file, ConfigStruct configStruct) {
+		Path key = key(file);
+		if (freezeEntries)
+			configStruct.freeze();
+
+		@Nullable ConfigStruct old = cache.put(key, configStruct);
+		if (old != null)
+			ConfigCacheEvent.emit(ConfigCacheEvent.EVICTION, key, "");
+
+		removeSections(key);
+	}
+
+	public synchronized @Nullable ConfigStruct get(Path file) {
+		Path key = key(file);
+		@Nullable ConfigStruct configStruct = cache.get(key);
+		ConfigCacheEvent.emit(configStruct != null ? ConfigCacheEvent.HIT : ConfigCacheEvent.MISS, key, "");
+		return configStruct;
+	}
+
+	/**
+	 * Returns whether the entire file has been cached. Unlike {@link #get(Path)}, this doesn't count as a lookup.
+	 */
+	public synchronized boolean contains(Path file) {
+		return cache.containsKey(key(file));
+	}
+
+	/**
+	 * Removes the file, and any cached sections of it, so it will be parsed again when it's needed.
+	 */
+	public synchronized void remove(Path file) {
+		Path key = key(file);
+		if (cache.remove(key) != null)
+			ConfigCacheEvent.emit(ConfigCacheEvent.EVICTION, key, "");
+
+		removeSections(key);
+	}
+
+	/**
+	 * Removes all files of the file system, for example after closing a zip file system.
+	 */
+	public synchronized void removeAll(FileSystem fileSystem) {
+		requireNonNull(fileSystem, "fileSystem");
+
+		List<Path> files = new ArrayList<>(cache.size() + sectionCache.size());
+		for (Path file : cache.keySet())
+			if (file.getFileSystem() == fileSystem)
+				files.add(file);
+		for (Path file : sectionCache.keySet())
+			if (file.getFileSystem() == fileSystem && !cache.containsKey(file))
+				files.add(file);
+
+		for (Path file : files)
+			remove(file);
+	}
+
+	public synchronized void clear() {
+		for (Path file : cache.keySet())
+			ConfigCacheEvent.emit(ConfigCacheEvent.EVICTION, file, "");
+
+		for (Entry<Path, Map<ConfigPath, ConfigStruct>> entry : sectionCache.entrySet())
+			for (ConfigPath section : entry.getValue().keySet())
+				ConfigCacheEvent.emit(ConfigCacheEvent.EVICTION, entry.getKey(), section);
+
+		cache.clear();
+		sectionCache.clear();
+	}
+
+	/**
+	 * Caches a single section of a file, for when only that section has been parsed.
+	 */
+	public synchronized void addSection(Path file, ConfigPath section, ConfigStruct configStruct) {
+		if (freezeEntries)
+			configStruct.freeze();
+
+		sectionCache.computeIfAbsent(key(file), ignored -> new HashMap<>(4)).put(section, configStruct);
+	}
+
+	public synchronized @Nullable ConfigStruct getSection(Path file, ConfigPath section) {
+		Path key = key(file);
+		@Nullable Map<ConfigPath, ConfigStruct> sections     = sectionCache.get(key);
+		@Nullable ConfigStruct                  configStruct = sections == null ? null : sections.get(section);
+		ConfigCacheEvent.emit(configStruct != null ? ConfigCacheEvent.HIT : ConfigCacheEvent.MISS, key, section);
+		return configStruct;
+	}
+
+	/**
+	 * Returns whether any sections have been cached for the file, and the file itself hasn't been cached yet.
+	 */
+	public synchronized boolean hasSections(Path file) {
+		return sectionCache.containsKey(key(file));
 	}
 
-	public @Nullable ConfigStruct get(Path file) {
-		return cache.get(file);
+	/**
+	 * Estimates the memory retained by each cached file, including its cached sections.
+	 * Structures that are shared between files, for example through includes,
+	 * count towards the file that comes first.
+	 *
+	 * @see ConfigMemoryEstimator
+	 */
+	public synchronized Map<Path, Long> estimateMemory() {
+		ConfigMemoryEstimator estimator = new ConfigMemoryEstimator();
+		Map<Path, Long>       estimates = new LinkedHashMap<>((cache.size() + sectionCache.size()) * 2);
+
+		for (Entry<Path, ConfigStruct> entry : cache.entrySet())
+			estimates.put(entry.getKey(), estimator.add(entry.getValue()));
+
+		for (Entry<Path, Map<ConfigPath, ConfigStruct>> entry : sectionCache.entrySet()) {
+			long bytes = 0;
+			for (ConfigStruct section : entry.getValue().values())
+				bytes += estimator.add(section);
+
+			estimates.merge(entry.getKey(), bytes, Long::sum);
+		}
+
+		return estimates;
+	}
+
+	private static Path key(Path file) {
+		return requireNonNull(file, "file").toAbsolutePath().normalize();
+	}
+
+	private void removeSections(Path file) {
+		@Nullable Map<ConfigPath, ConfigStruct> sections = sectionCache.remove(file);
+		if (sections == null)
+			return;
+
+		for (ConfigPath section : sections.keySet())
+			ConfigCacheEvent.emit(ConfigCacheEvent.EVICTION, file, section);
 	}
 }
@@ -0,0 +1,39 @@
+package org.digitalmodular.udbconfigreader;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning the reading, tokenizing and parsing of one configuration file.
+ *
+ * @author Zom-B
+ */
+// Created 2026-10-19
+@Name("org.digitalmodular.udbconfigreader.FileLoad")
+@Label("Config File Load")
+@Description("Reading, tokenizing, and parsing of one configuration file, including the files it includes")
+@Category("UDB Config Reader")
+@StackTrace(false)
+final class ConfigFileLoadEvent extends Event {
+	@Label("File")
+	String file;
+
+	@Label("Section")
+	@Description("The section that was parsed, or empty when the entire file was parsed")
+	String section;
+
+	@Label("Size")
+	@DataAmount
+	long size;
+
+	@Label("Tokens")
+	int tokenCount;
+
+	@Label("Include Depth")
+	int includeDepth;
+}
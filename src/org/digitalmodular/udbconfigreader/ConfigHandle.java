@@ -0,0 +1,158 @@
+package org.digitalmodular.udbconfigreader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.jetbrains.annotations.Nullable;
+
+import static org.digitalmodular.utilities.ValidatorUtilities.requireNonNull;
+
+/**
+ * Publishes the configuration of a file to other threads, and replaces it when the file is reloaded.
+ * <p>
+ * Each load produces a {@link Snapshot}: a frozen configuration with a version number. Readers get the current
+ * snapshot without locking or waiting, even while a reload is in progress, and keep using it for as long as they
+ * need a consistent view. A reload publishes a new snapshot in one step, and leaves the snapshots held by readers
+ * untouched. An old snapshot is garbage collected once no reader holds it anymore.
+ * <p>
+ * Each load reads the file and all files it includes with a private {@link ConfigFileCache}, so the configuration
+ * shares no structures with {@link ConfigFileCache#INSTANCE} or with other loads, and freezing it doesn't affect them.
+ * Loads of different handles can run concurrently.
+ *
+ * @author Zom-B
+ */
+// Created 2026-10-19
+public final class ConfigHandle {
+	/**
+	 * One loaded version of the configuration. Immutable.
+	 */
+	public static final class Snapshot {
+		private final long         version;
+		private final ConfigStruct configuration;
+		private final List<Path>   files;
+
+		Snapshot(long version, ConfigStruct configuration, List<Path> files) {
+			this.version = version;
+			this.configuration = configuration;
+			this.files = files;
+		}
+
+		/**
+		 * Returns {@code 1} for the first load of the handle, and one more for every reload after it.
+		 */
+		public long getVersion() {
+			return version;
+		}
+
+		/**
+		 * Returns the configuration, which is {@link ConfigStruct#isFrozen() frozen}.
+		 */
+		public ConfigStruct getConfiguration() {
+			return configuration;
+		}
+
+		/**
+		 * Returns the file and all files it included, in the order they were opened.
+		 */
+		public List<Path> getFiles() {
+			return files;
+		}
+
+		@Override
+		public String toString() {
+			return getClass().getSimpleName() + '(' + version + ", " + configuration.getName() + ')';
+		}
+	}
+
+	private final Path file;
+
+	/**
+	 * Serializes reloads of this handle, so versions are published in order.
+	 */
+	private final Object reloadLock = new Object();
+
+	/**
+	 * Holds {@code null} until the first load.
+	 */
+	private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(null);
+
+	/**
+	 * Creates a handle without loading the file. Call {@link #reload()} to load it.
+	 */
+	public ConfigHandle(Path file) {
+		this.file = requireNonNull(file, "file");
+	}
+
+	/**
+	 * Creates a handle and loads the file.
+	 */
+	public static ConfigHandle open(Path file) throws IOException {
+		ConfigHandle handle = new ConfigHandle(file);
+		handle.reload();
+		return handle;
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	/**
+	 * Returns the most recently published snapshot.
+	 *
+	 * @throws IllegalStateException when the file hasn't been loaded yet.
+	 */
+	public Snapshot getSnapshot() {
+		@Nullable Snapshot current = snapshot.get();
+		if (current == null)
+			throw new IllegalStateException("Configuration hasn't been loaded yet: " + file);
+
+		return current;
+	}
+
+	/**
+	 * Returns the configuration of the most recently published snapshot. To read several values that must be
+	 * consistent with each other, get the snapshot (or this configuration) once, and read them all from it.
+	 *
+	 * @throws IllegalStateException when the file hasn't been loaded yet.
+	 */
+	public ConfigStruct getConfiguration() {
+		return getSnapshot().getConfiguration();
+	}
+
+	/**
+	 * Loads the file again, together with all files it includes, and publishes the result as a new snapshot.
+	 * <p>
+	 * All files are read again, so changes in included files are picked up as well.
+	 * If loading fails, the previous snapshot stays published.
+	 *
+	 * @return the new snapshot
+	 */
+	public Snapshot reload() throws IOException {
+		synchronized (reloadLock) {
+			LoadStatistics            statistics = new LoadStatistics();
+			RecursiveConfigFileLoader loader     = new RecursiveConfigFileLoader(false,
+			                                                                     statistics,
+			                                                                     new ConfigFileCache());
+
+			ConfigStruct configuration = loader.loadConfigurationFile(file);
+			configuration.freeze();
+
+			Set<Path> files = new LinkedHashSet<>(statistics.getFiles().size());
+			for (LoadStatistics.FileStatistics fileStatistics : statistics.getFiles())
+				files.add(fileStatistics.getFile());
+
+			@Nullable Snapshot previous = snapshot.get();
+			Snapshot           next     = new Snapshot(previous == null ? 1 : previous.getVersion() + 1,
+			                                           configuration,
+			                                           Collections.unmodifiableList(new ArrayList<>(files)));
+			snapshot.set(next);
+			return next;
+		}
+	}
+}
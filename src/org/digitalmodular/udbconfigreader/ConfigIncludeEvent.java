@@ -0,0 +1,31 @@
+package org.digitalmodular.udbconfigreader;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning the resolution of one {@code include()} call, whether or not the file was cached.
+ *
+ * @author Zom-B
+ */
+// Created 2026-10-19
+@Name("org.digitalmodular.udbconfigreader.Include")
+@Label("Config Include")
+@Description("Resolution of an include() call in a configuration file")
+@Category("UDB Config Reader")
+@StackTrace(false)
+final class ConfigIncludeEvent extends Event {
+	@Label("Location")
+	@Description("The location of the include() call")
+	String location;
+
+	@Label("File")
+	String file;
+
+	@Label("Section")
+	String section;
+}
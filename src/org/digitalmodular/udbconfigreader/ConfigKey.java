@@ -0,0 +1,20 @@
+package org.digitalmodular.udbconfigreader;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Sets the key that {@link ConfigBinder} reads a record component from, when it differs from the component name.
+ *
+ * @author Zom-B
+ */
+// Created 2026-10-19
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.RECORD_COMPONENT)
+public @interface ConfigKey {
+	String value();
+}
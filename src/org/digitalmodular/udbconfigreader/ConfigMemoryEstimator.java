@@ -0,0 +1,202 @@
+package org.digitalmodular.udbconfigreader;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.jetbrains.annotations.Nullable;
+
+import static org.digitalmodular.utilities.ValidatorUtilities.requireNonNull;
+
+/**
+ * Estimates the heap memory retained by {@code ConfigStruct} trees, without a heap dump.
+ * <p>
+ * The estimate covers the structs, their hash maps (table and entries), the numeric-key index, the keys,
+ * and the values. It assumes a 64-bit JVM with compressed references and compact strings, which is the default.
+ * <p>
+ * Every object is counted once per estimator, so subtrees and strings that are shared (for example between files
+ * that include the same file) count towards whichever tree was added first.
+ * Lazily loaded structs that haven't been accessed count as empty, as they aren't loaded for the estimate.
+ * <p>
+ * The cost is proportional to the number of objects in the trees, and no objects are loaded or modified,
+ * so this can run in production, but not concurrently with modifications to the trees.
+ *
+ * @author Zom-B
+ */
+// Created 2026-10-19
+public final class ConfigMemoryEstimator {
+	private static final int OBJECT_HEADER = 12;
+	private static final int ARRAY_HEADER  = 16;
+	private static final int REFERENCE     = 4;
+
+	/**
+	 * Header, 4 references, {@code long} and 2 {@code boolean}s.
+	 */
+	private static final int CONFIG_STRUCT         = align(OBJECT_HEADER + 4 * REFERENCE + 8 + 2);
+	/**
+	 * Header, 7 references, 4 {@code int}s (of which one {@code float}) and a {@code boolean}.
+	 */
+	private static final int LINKED_HASH_MAP       = align(OBJECT_HEADER + 7 * REFERENCE + 4 * 4 + 1);
+	/**
+	 * Header, {@code int} hash, and 5 references.
+	 */
+	private static final int LINKED_HASH_MAP_ENTRY = align(OBJECT_HEADER + 4 + 5 * REFERENCE);
+	/**
+	 * Header, 2 references, 2 {@code int}s.
+	 */
+	private static final int INT_OBJECT_MAP        = align(OBJECT_HEADER + 2 * REFERENCE + 2 * 4);
+	/**
+	 * Header, reference, {@code int} hash and 2 {@code byte}s.
+	 */
+	private static final int STRING                = align(OBJECT_HEADER + REFERENCE + 4 + 2);
+
+	/**
+	 * The initial capacity of most hash maps of structs.
+	 */
+	private static final int MINIMUM_TABLE_CAPACITY = 16;
+
+	private final Set<Object> counted = Collections.newSetFromMap(new IdentityHashMap<>(1024));
+
+	private long totalBytes = 0;
+
+	/**
+	 * Estimates the size of a single tree.
+	 */
+	public static long estimate(ConfigStruct struct) {
+		return new ConfigMemoryEstimator().add(struct);
+	}
+
+	/**
+	 * Estimates the size of each entry of the struct, in order, like {@code "thingtypes" -> 3_100_000}.
+	 * Entries that are shared with earlier entries count towards the earlier entry.
+	 * The struct itself is not included.
+	 */
+	public static Map<String, Long> estimateSections(ConfigStruct struct) {
+		requireNonNull(struct, "struct");
+
+		ConfigMemoryEstimator estimator = new ConfigMemoryEstimator();
+		Map<String, Long>     sections  = new LinkedHashMap<>(struct.getValues().size() * 2);
+		for (Entry<String, Object> entry : struct.getValues().entrySet())
+			sections.put(entry.getKey(), estimator.add(entry.getKey()) + estimator.add(entry.getValue()));
+
+		return sections;
+	}
+
+	/**
+	 * Formats a size like {@code "3.1 MB"}.
+	 */
+	public static String formatSize(long bytes) {
+		if (bytes < 1024)
+			return bytes + " B";
+		else if (bytes < 1024 * 1024)
+			return String.format("%.1f kB", bytes / 1024.0);
+		else if (bytes < 1024 * 1024 * 1024)
+			return String.format("%.1f MB", bytes / (1024.0 * 1024));
+
+		return String.format("%.1f GB", bytes / (1024.0 * 1024 * 1024));
+	}
+
+	/**
+	 * Adds the value (usually a {@code ConfigStruct}) and everything it references to the estimate.
+	 *
+	 * @return the size of the objects that weren't counted before
+	 */
+	public long add(@Nullable Object value) {
+		long bytes = 0;
+
+		Deque<ConfigStruct> pending = new ArrayDeque<>(16);
+		bytes += addValue(value, pending);
+
+		while (!pending.isEmpty()) {
+			ConfigStruct        struct = pending.pop();
+			Map<String, Object> values = struct.getValues();
+
+			bytes += CONFIG_STRUCT + LINKED_HASH_MAP + addString(struct.getName());
+			if (!values.isEmpty())
+				bytes += referenceArray(tableCapacity(values.size())) + (long)values.size() * LINKED_HASH_MAP_ENTRY;
+
+			@Nullable IntObjectMap<Object> intIndex = struct.getIntIndex();
+			if (intIndex != null)
+				bytes += INT_OBJECT_MAP + align(ARRAY_HEADER + 4L * intIndex.capacity()) +
+				         referenceArray(intIndex.capacity());
+
+			for (Entry<String, Object> entry : values.entrySet())
+				bytes += addString(entry.getKey()) + addValue(entry.getValue(), pending);
+		}
+
+		totalBytes += bytes;
+		return bytes;
+	}
+
+	/**
+	 * Returns the size of all objects added so far.
+	 */
+	public long getTotalBytes() {
+		return totalBytes;
+	}
+
+	/**
+	 * Counts the value, except structs, which are put on the stack to be counted later.
+	 */
+	private long addValue(@Nullable Object value, Deque<ConfigStruct> pending) {
+		if (value == null || !counted.add(value))
+			return 0;
+
+		if (value instanceof ConfigStruct) {
+			pending.push((ConfigStruct)value);
+			return 0;
+		} else if (value instanceof String) {
+			return stringSize((String)value);
+		} else if (value instanceof Boolean) {
+			return 0; // Boolean.TRUE and FALSE
+		} else if (value instanceof Double || value instanceof Long) {
+			return align(OBJECT_HEADER + 8);
+		}
+
+		// Integer, Float, and anything unexpected
+		return align(OBJECT_HEADER + 4);
+	}
+
+	private long addString(String string) {
+		if (!counted.add(string))
+			return 0;
+
+		return stringSize(string);
+	}
+
+	private static long stringSize(String string) {
+		boolean latin1 = true;
+		for (int i = 0; i < string.length() && latin1; i++)
+			latin1 = string.charAt(i) < 256;
+
+		return STRING + align(ARRAY_HEADER + (long)string.length() * (latin1 ? 1 : 2));
+	}
+
+	/**
+	 * Returns the table capacity of a hash map holding this many entries, at the default load factor of 0.75.
+	 */
+	private static int tableCapacity(int size) {
+		int capacity = MINIMUM_TABLE_CAPACITY;
+		while (capacity * 3L / 4 < size)
+			capacity *= 2;
+
+		return capacity;
+	}
+
+	private static long referenceArray(int length) {
+		return align(ARRAY_HEADER + (long)length * REFERENCE);
+	}
+
+	private static int align(int bytes) {
+		return (bytes + 7) & ~7;
+	}
+
+	private static long align(long bytes) {
+		return (bytes + 7) & ~7L;
+	}
+}
@@ -0,0 +1,20 @@
+package org.digitalmodular.udbconfigreader;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Makes {@link ConfigBinder} fill a record component with the name of the struct instead of one of its values,
+ * for example the number of a thing type. The name is converted to the type of the component like a string value.
+ *
+ * @author Zom-B
+ */
+// Created 2026-10-19
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.RECORD_COMPONENT)
+public @interface ConfigName {
+}
@@ -0,0 +1,207 @@
+package org.digitalmodular.udbconfigreader;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+
+import org.jetbrains.annotations.Nullable;
+
+import static org.digitalmodular.utilities.ValidatorUtilities.requireNonNull;
+
+/**
+ * A precompiled sequence of keys, for looking up deeply nested values in a {@code ConfigStruct} tree.
+ * <p>
+ * The textual form separates the keys with dots, for example {@code "thingtypes.monsters.3004.title"}.
+ * The empty string is the path with no keys, which resolves to the struct it's resolved against.
+ * <p>
+ * Resolving doesn't allocate. When resolved against a {@link ConfigStruct#freeze() frozen} tree,
+ * the result is remembered and returned directly when the same tree is queried again.
+ * Instances are immutable (apart from this cache) and can be shared between threads.
+ * <p>
+ * Paths created with {@link #child(String)} only link to their parent, so creating the path to every value of a deep
+ * tree takes linear time. Their keys and textual form are collected on first use.
+ *
+ * @author Zom-B
+ */
+// Created 2026-10-19
+public final class ConfigPath {
+	private static final class CachedResolution {
+		private final WeakReference<ConfigStruct> root;
+		private final @Nullable Object            value;
+
+		private CachedResolution(ConfigStruct root, @Nullable Object value) {
+			this.root = new WeakReference<>(root);
+			this.value = value;
+		}
+	}
+
+	private final @Nullable ConfigPath parent;
+	private final @Nullable String     key;
+	private final int                  segmentCount;
+
+	private volatile @Nullable String   path;
+	private volatile @Nullable String[] segments;
+
+	private volatile @Nullable CachedResolution cachedResolution = null;
+
+	private ConfigPath(String path, String[] segments) {
+		parent = null;
+		key = null;
+		segmentCount = segments.length;
+		this.path = path;
+		this.segments = segments;
+	}
+
+	private ConfigPath(ConfigPath parent, String key) {
+		this.parent = parent;
+		this.key = key;
+		segmentCount = parent.segmentCount + 1;
+		path = null;
+		segments = null;
+	}
+
+	/**
+	 * Splits the path into keys.
+	 *
+	 * @throws IllegalArgumentException when the path contains an empty key,
+	 *                                  for example when it starts or ends with a dot.
+	 */
+	public static ConfigPath compile(String path) {
+		requireNonNull(path, "path");
+
+		if (path.isEmpty())
+			return new ConfigPath(path, new String[0]);
+
+		int numSegments = 1;
+		for (int i = 0; i < path.length(); i++)
+			if (path.charAt(i) == '.')
+				numSegments++;
+
+		String[] segments = new String[numSegments];
+		int      start    = 0;
+		for (int i = 0; i < numSegments; i++) {
+			int end = path.indexOf('.', start);
+			if (end < 0)
+				end = path.length();
+
+			if (end == start)
+				throw new IllegalArgumentException("'path' contains an empty key: \"" + path + '"');
+
+			segments[i] = path.substring(start, end);
+			start = end + 1;
+		}
+
+		return new ConfigPath(path, segments);
+	}
+
+	/**
+	 * Returns the path to a key in the struct at the end of this path.
+	 */
+	public ConfigPath child(String key) {
+		requireNonNull(key, "key");
+
+		return new ConfigPath(this, key);
+	}
+
+	public int getSegmentCount() {
+		return segmentCount;
+	}
+
+	public String getSegment(int index) {
+		return segments()[index];
+	}
+
+	/**
+	 * Returns the value at the end of the path,
+	 * or {@code null} if any key is missing or any value before the last one is not a struct.
+	 */
+	public @Nullable Object resolve(ConfigStruct root) {
+		requireNonNull(root, "root");
+
+		if (!root.isFrozen())
+			return resolveUncached(root);
+
+		@Nullable CachedResolution cached = cachedResolution;
+		if (cached != null && cached.root.get() == root)
+			return cached.value;
+
+		@Nullable Object value = resolveUncached(root);
+		cachedResolution = new CachedResolution(root, value);
+		return value;
+	}
+
+	/**
+	 * Returns the struct at the end of the path, or {@code null} if it doesn't exist or is not a struct.
+	 */
+	public @Nullable ConfigStruct resolveStruct(ConfigStruct root) {
+		@Nullable Object value = resolve(root);
+
+		if (!(value instanceof ConfigStruct))
+			return null;
+
+		return (ConfigStruct)value;
+	}
+
+	private @Nullable Object resolveUncached(ConfigStruct root) {
+		Object value = root;
+
+		for (String segment : segments()) {
+			if (!(value instanceof ConfigStruct))
+				return null;
+
+			value = ((ConfigStruct)value).get(segment);
+		}
+
+		return value;
+	}
+
+	@Override
+	public boolean equals(@Nullable Object o) {
+		if (this == o)
+			return true;
+		if (!(o instanceof ConfigPath))
+			return false;
+
+		ConfigPath other = (ConfigPath)o;
+		if (segmentCount != other.segmentCount)
+			return false;
+
+		return Arrays.equals(segments(), other.segments());
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(segments());
+	}
+
+	@Override
+	public String toString() {
+		@Nullable String cached = path;
+		if (cached == null) {
+			cached = String.join(".", segments());
+			path = cached;
+		}
+
+		return cached;
+	}
+
+	/**
+	 * Returns the keys, collecting them from the parents on first use.
+	 */
+	private String[] segments() {
+		@Nullable String[] cached = segments;
+		if (cached != null)
+			return cached;
+
+		cached = new String[segmentCount];
+		ConfigPath current = this;
+		// Walk up until a path that already has its keys, and copy those
+		while (current.segments == null) {
+			cached[current.segmentCount - 1] = current.key;
+			current = current.parent;
+		}
+
+		System.arraycopy(current.segments, 0, cached, 0, current.segmentCount);
+		segments = cached;
+		return cached;
+	}
+}
@@ -0,0 +1,117 @@
+package org.digitalmodular.udbconfigreader;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.digitalmodular.utilities.ValidatorUtilities.requireNonNull;
+
+/**
+ * A set of path patterns that selects which parts of a configuration to load.
+ * <p>
+ * Patterns are dotted key paths like {@link ConfigPath}, where a key can also be a wildcard:
+ * <ul><li>{@code *} matches exactly one key,</li>
+ * <li>{@code **} matches any number of keys, including none.</li></ul>
+ * For example, {@code "thingtypes.**.title"} selects every {@code title} anywhere under {@code thingtypes},
+ * and {@code "engine"} selects the {@code engine} entry. When a pattern matches a block, the entire block is selected.
+ * <p>
+ * Blocks on the way to selected entries are created, but contain only the selected entries.
+ *
+ * @author Zom-B
+ * @see GameConfigurationIO#loadGameConfiguration(java.nio.file.Path, ConfigProjection)
+ */
+// Created 2026-10-19
+public final class ConfigProjection {
+	private static final String ANY_KEY      = "*";
+	private static final String ANY_KEY_PATH = "**";
+
+	private final String[]   globs;
+	private final String[][] patterns;
+
+	private ConfigProjection(String[] globs, String[][] patterns) {
+		this.globs = globs;
+		this.patterns = patterns;
+	}
+
+	public static ConfigProjection compile(String... globs) {
+		requireNonNull(globs, "globs");
+
+		String[][] patterns = new String[globs.length][];
+		for (int i = 0; i < globs.length; i++) {
+			ConfigPath path = ConfigPath.compile(requireNonNull(globs[i], "globs[" + i + ']'));
+			if (path.getSegmentCount() == 0)
+				throw new IllegalArgumentException("'globs[" + i + "]' is empty");
+
+			patterns[i] = new String[path.getSegmentCount()];
+			for (int j = 0; j < patterns[i].length; j++)
+				patterns[i][j] = path.getSegment(j);
+		}
+
+		return new ConfigProjection(globs.clone(), patterns);
+	}
+
+	/**
+	 * Returns whether the entry at the path is selected (including everything below it).
+	 */
+	public boolean matches(List<String> path) {
+		for (String[] pattern : patterns)
+			if (matches(pattern, 0, path, 0))
+				return true;
+
+		return false;
+	}
+
+	/**
+	 * Returns whether entries below the path may be selected. If so, the block at the path needs to be visited.
+	 */
+	public boolean matchesBelow(List<String> path) {
+		for (String[] pattern : patterns)
+			if (matchesBelow(pattern, 0, path, 0))
+				return true;
+
+		return false;
+	}
+
+	private static boolean matches(String[] pattern, int patternIndex, List<String> path, int pathIndex) {
+		if (pathIndex == path.size()) {
+			for (int i = patternIndex; i < pattern.length; i++)
+				if (!ANY_KEY_PATH.equals(pattern[i]))
+					return false;
+
+			return true;
+		} else if (patternIndex == pattern.length) {
+			return false;
+		}
+
+		String segment = pattern[patternIndex];
+		if (ANY_KEY_PATH.equals(segment))
+			return matches(pattern, patternIndex + 1, path, pathIndex) ||
+			       matches(pattern, patternIndex, path, pathIndex + 1);
+
+		return matchesKey(segment, path.get(pathIndex)) &&
+		       matches(pattern, patternIndex + 1, path, pathIndex + 1);
+	}
+
+	private static boolean matchesBelow(String[] pattern, int patternIndex, List<String> path, int pathIndex) {
+		if (pathIndex == path.size())
+			return patternIndex < pattern.length;
+		else if (patternIndex == pattern.length)
+			return false;
+
+		String segment = pattern[patternIndex];
+		if (ANY_KEY_PATH.equals(segment))
+			return matchesBelow(pattern, patternIndex + 1, path, pathIndex) ||
+			       matchesBelow(pattern, patternIndex, path, pathIndex + 1);
+
+		return matchesKey(segment, path.get(pathIndex)) &&
+		       matchesBelow(pattern, patternIndex + 1, path, pathIndex + 1);
+	}
+
+	private static boolean matchesKey(String segment, String key) {
+		return ANY_KEY.equals(segment) || segment.equals(key);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + Arrays.toString(globs);
+	}
+}
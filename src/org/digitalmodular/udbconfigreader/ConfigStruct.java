@@ -1,9 +1,16 @@
 package org.digitalmodular.udbconfigreader;
 
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.Nullable;
@@ -15,27 +22,156 @@ import static org.digitalmodular.utilities.ValidatorUtilities.requireStringLengt
  * A structure with a name and holding key-value pairs, where value can be a literal value or another structure.
  * <p>
  * During construction, the choice can be made to keep the entries in order of being added.
+ * <p>
+ * A struct can be {@link #freeze() frozen}, after which it (and all structs it contains) can no longer be modified.
+ * Frozen structs cache their {@link #getStructuralHash() structural hash}, and are copied instead of modified
+ * when another struct is merged into them.
+ * <p>
+ * Structs created by a lazy loader are filled on first access, which is not thread-safe.
+ * Freezing a struct loads it completely, after which it can safely be shared.
  *
  * @author Zom-B
  */
 // Created 2021-08-09
 public class ConfigStruct implements Iterable<Entry<String, Object>> {
+	/**
+	 * A struct of which the hash is being calculated, in {@link #getStructuralHash()}.
+	 */
+	private static final class HashFrame {
+		private final ConfigStruct                    struct;
+		private final Iterator<Entry<String, Object>> entries;
+
+		private long hash;
+		/**
+		 * The key hash of the entry whose struct is being hashed in the frame above this one.
+		 */
+		private int  pendingKeyHash = 0;
+
+		private HashFrame(ConfigStruct struct) {
+			this.struct = struct;
+			struct.loadPendingContents();
+			entries = struct.values.entrySet().iterator();
+			hash = struct.values.size();
+		}
+	}
+
 	private final String              name;
 	private final Map<String, Object> values;
 
+	private boolean frozen         = false;
+	private long    structuralHash = 0;
+
+	/**
+	 * Lookup table for {@link #get(int)}, only present when all keys are integers.
+	 */
+	private @Nullable IntObjectMap<Object> intIndex      = null;
+	private           boolean             intIndexBuilt = false;
+
+	/**
+	 * Fills the struct on first access. Only present on lazily loaded structs which haven't been accessed yet.
+	 */
+	private @Nullable Consumer<ConfigStruct> pendingContents = null;
+
 	public ConfigStruct(String name, int initialCapacity) {
 		this.name = requireStringLengthAtLeast(1, name, "name");
 		values = new LinkedHashMap<>(initialCapacity);
 	}
 
+	/**
+	 * Creates a struct whose contents will be added by {@code pendingContents} the first time it's accessed.
+	 * <p>
+	 * If that throws an exception, the struct is left empty and the next access tries again.
+	 */
+	ConfigStruct(String name, Consumer<ConfigStruct> pendingContents) {
+		this(name, 16);
+		this.pendingContents = requireNonNull(pendingContents, "pendingContents");
+	}
+
+	/**
+	 * Creates a modifiable shallow copy. Contained structs are shared, so this is only safe on frozen structs.
+	 */
+	private ConfigStruct(ConfigStruct struct) {
+		assert struct.frozen;
+		name = struct.name;
+		values = new LinkedHashMap<>(struct.values);
+	}
+
 	public String getName() {
 		return name;
 	}
 
 	public @Nullable Object get(String key) {
+		loadPendingContents();
 		return values.get(key);
 	}
 
+	/**
+	 * Equivalent to {@code get(Integer.toString(key))}, but faster for structs that have only integer keys,
+	 * like thing types, linedef types and sector effects.
+	 * <p>
+	 * For such structs, an index with primitive keys is built on first use (or when the struct is frozen)
+	 * and rebuilt when the struct is modified.
+	 */
+	public @Nullable Object get(int key) {
+		loadPendingContents();
+		if (!intIndexBuilt)
+			buildIntIndex();
+
+		if (intIndex != null)
+			return intIndex.get(key);
+
+		return values.get(Integer.toString(key));
+	}
+
+	private void buildIntIndex() {
+		intIndexBuilt = true;
+		intIndex = null;
+
+		for (String key : values.keySet())
+			if (!isCanonicalInt(key))
+				return;
+
+		IntObjectMap<Object> index = new IntObjectMap<>(values.size());
+		for (Entry<String, Object> entry : values.entrySet())
+			if (entry.getValue() != null)
+				index.put(Integer.parseInt(entry.getKey()), entry.getValue());
+
+		intIndex = index;
+	}
+
+	/**
+	 * Returns whether the key is exactly what {@link Integer#toString(int)} would produce for some {@code int},
+	 * so there are no leading zeros, no plus sign, and no {@code "-0"}.
+	 */
+	private static boolean isCanonicalInt(String key) {
+		int length = key.length();
+		int start  = key.charAt(0) == '-' ? 1 : 0;
+		if (length == start || length - start > 10)
+			return false;
+		if (key.charAt(start) == '0' && length > 1)
+			return false;
+
+		long value = 0;
+		for (int i = start; i < length; i++) {
+			char ch = key.charAt(i);
+			if (ch < '0' || ch > '9')
+				return false;
+
+			value = value * 10 + (ch - '0');
+		}
+
+		return start == 0 ? value <= Integer.MAX_VALUE : value <= -(long)Integer.MIN_VALUE;
+	}
+
+	/**
+	 * Returns whether the key exists. This differs from {@code get(key) != null} for keys that are declared without
+	 * a value (or with value {@code null}).
+	 */
+	public boolean containsKey(String key) {
+		loadPendingContents();
+		return values.containsKey(key);
+	}
+
 	/**
 	 * Stores or overwrites the specified value at the specified key.
 	 * <p>
@@ -46,7 +182,21 @@ public class ConfigStruct implements Iterable<Entry<String, Object>> {
 	 * <li>Otherwise it directly stores the value, overwriting any previous value.</li></ul>
 	 */
 	public void put(String key, @Nullable Object value) {
+		preparePut(key, value);
+
+		if (value instanceof ConfigStruct) {
+			merge((ConfigStruct)value);
+			return;
+		}
+
+		values.put(key, value);
+		intIndexBuilt = false;
+	}
+
+	private void preparePut(String key, @Nullable Object value) {
 		requireStringLengthAtLeast(1, key, "key");
+		requireNotFrozen();
+		loadPendingContents();
 
 		if (value instanceof ConfigStruct) {
 			String name = ((ConfigStruct)value).getName();
@@ -55,26 +205,67 @@ public class ConfigStruct implements Iterable<Entry<String, Object>> {
 						"specified 'key' and the 'name' of the specified ConfigurationStruct don't match:" + key +
 						", " + name);
 			}
+		}
+	}
 
-			merge((ConfigStruct)value);
+	private void merge(ConfigStruct struct) {
+		// Iterative, so arbitrarily deep structs can be merged
+		Deque<ConfigStruct>                    targets = new ArrayDeque<>(16);
+		Deque<Iterator<Entry<String, Object>>> sources = new ArrayDeque<>(16);
+
+		@Nullable ConfigStruct target = mergeInto(this, struct);
+		if (target == null)
 			return;
-		}
 
-		values.put(key, value);
+		targets.push(target);
+		sources.push(struct.iterator());
+		while (!targets.isEmpty()) {
+			Iterator<Entry<String, Object>> entries = sources.getFirst();
+			if (!entries.hasNext()) {
+				targets.pop();
+				sources.pop();
+				continue;
+			}
+
+			Entry<String, Object> entry  = entries.next();
+			ConfigStruct          parent = targets.getFirst();
+			@Nullable Object      value  = entry.getValue();
+			if (!(value instanceof ConfigStruct)) {
+				parent.put(entry.getKey(), value);
+				continue;
+			}
+
+			parent.preparePut(entry.getKey(), value);
+			target = mergeInto(parent, (ConfigStruct)value);
+			if (target != null) {
+				targets.push(target);
+				sources.push(((ConfigStruct)value).iterator());
+			}
+		}
 	}
 
-	private void merge(ConfigStruct struct) {
+	/**
+	 * Stores the struct in the parent if there's no struct with the same name yet.
+	 *
+	 * @return the existing struct, into which the contents of the struct still have to be merged, or {@code null}
+	 */
+	private static @Nullable ConfigStruct mergeInto(ConfigStruct parent, ConfigStruct struct) {
 		String key = struct.getName();
 
-		@Nullable Object oldValue = values.get(key);
-		if (oldValue instanceof ConfigStruct) {
-			ConfigStruct oldStruct = (ConfigStruct)oldValue;
+		@Nullable Object oldValue = parent.values.get(key);
+		parent.intIndexBuilt = false;
+		if (!(oldValue instanceof ConfigStruct)) {
+			parent.values.put(key, struct);
+			return null;
+		}
 
-			for (Entry<String, Object> entry : struct)
-				oldStruct.put(entry.getKey(), entry.getValue());
-		} else {
-			values.put(key, struct);
+		ConfigStruct oldStruct = (ConfigStruct)oldValue;
+		if (oldStruct.frozen) {
+			oldStruct = new ConfigStruct(oldStruct);
+			parent.values.put(key, oldStruct);
 		}
+
+		return oldStruct;
 	}
 
 	/**
@@ -87,7 +278,20 @@ public class ConfigStruct implements Iterable<Entry<String, Object>> {
 			put(entry.getKey(), entry.getValue());
 	}
 
+	/**
+	 * Equivalent to {@code getStruct(Integer.toString(key))}, but faster. See {@link #get(int)}.
+	 */
+	public @Nullable ConfigStruct getStruct(int key) {
+		@Nullable Object value = get(key);
+
+		if (!(value instanceof ConfigStruct))
+			return null;
+
+		return (ConfigStruct)value;
+	}
+
 	public @Nullable ConfigStruct getStruct(String key) {
+		loadPendingContents();
 		@Nullable Object value = values.get(requireNonNull(key, "key"));
 
 		if (!(value instanceof ConfigStruct))
@@ -98,6 +302,7 @@ public class ConfigStruct implements Iterable<Entry<String, Object>> {
 
 	@Contract("_, null -> null; _, _ -> !null")
 	public String getString(String key, String fallbackValue) {
+		loadPendingContents();
 		@Nullable Object value = values.get(requireNonNull(key, "key"));
 
 		if (value == null)
@@ -106,39 +311,205 @@ public class ConfigStruct implements Iterable<Entry<String, Object>> {
 		return value.toString();
 	}
 
+	/**
+	 * Makes this struct and all structs it contains unmodifiable. Calling this more than once has no effect.
+	 */
+	public void freeze() {
+		if (frozen)
+			return;
+
+		// Depth-first with an explicit stack, so arbitrarily deep trees can be frozen.
+		// Each struct is marked frozen after its contents.
+		Deque<ConfigStruct>     structs   = new ArrayDeque<>(16);
+		Deque<Iterator<Object>> iterators = new ArrayDeque<>(16);
+		loadPendingContents();
+		structs.push(this);
+		iterators.push(values.values().iterator());
+
+		while (!structs.isEmpty()) {
+			Iterator<Object> iterator = iterators.getFirst();
+			if (iterator.hasNext()) {
+				@Nullable Object value = iterator.next();
+				if (value instanceof ConfigStruct && !((ConfigStruct)value).frozen) {
+					ConfigStruct struct = (ConfigStruct)value;
+					struct.loadPendingContents();
+					structs.push(struct);
+					iterators.push(struct.values.values().iterator());
+				}
+
+				continue;
+			}
+
+			iterators.pop();
+			ConfigStruct struct = structs.pop();
+			if (!struct.intIndexBuilt)
+				struct.buildIntIndex();
+
+			struct.frozen = true;
+		}
+	}
+
+	/**
+	 * Returns {@code false} if this is a lazily loaded struct that hasn't been accessed yet.
+	 */
+	public boolean isLoaded() {
+		return pendingContents == null;
+	}
+
+	private void loadPendingContents() {
+		@Nullable Consumer<ConfigStruct> contents = pendingContents;
+		if (contents == null)
+			return;
+
+		pendingContents = null;
+		try {
+			contents.accept(this);
+		} catch (RuntimeException ex) {
+			values.clear();
+			intIndexBuilt = false;
+			pendingContents = contents;
+			throw ex;
+		}
+	}
+
+	/**
+	 * Returns the entries without loading pending contents, for inspecting the struct as it is. Don't modify.
+	 */
+	Map<String, Object> getValues() {
+		return values;
+	}
+
+	/**
+	 * Returns the index for {@link #get(int)}, if it has been built and all keys are integers.
+	 */
+	@Nullable IntObjectMap<Object> getIntIndex() {
+		return intIndexBuilt ? intIndex : null;
+	}
+
+	public boolean isFrozen() {
+		return frozen;
+	}
+
+	private void requireNotFrozen() {
+		if (frozen)
+			throw new IllegalStateException("ConfigStruct is frozen: " + name);
+	}
+
+	/**
+	 * Returns a hash over all entries of this struct, recursively including the entries of contained structs.
+	 * <p>
+	 * The name of this struct is not part of the hash, and neither is the order of the entries,
+	 * so two structs with equal hashes are (barring collisions) interchangeable when merged into a parent.
+	 * <p>
+	 * On frozen structs the hash is computed once and then cached,
+	 * which makes comparing frozen trees with {@link ConfigDiff} proportional to the size of the differences.
+	 */
+	public long getStructuralHash() {
+		if (frozen && structuralHash != 0)
+			return structuralHash;
+
+		// Depth-first with an explicit stack, so arbitrarily deep trees can be hashed
+		Deque<HashFrame> frames    = new ArrayDeque<>(16);
+		long             childHash = 0;
+		boolean          returning = false;
+		frames.push(new HashFrame(this));
+
+		while (true) {
+			HashFrame frame = frames.getFirst();
+			if (returning) {
+				frame.hash += mix(frame.pendingKeyHash * 0x9E3779B97F4A7C15L + childHash);
+				returning = false;
+			}
+
+			if (frame.entries.hasNext()) {
+				Entry<String, Object> entry = frame.entries.next();
+				@Nullable Object      value = entry.getValue();
+				if (value instanceof ConfigStruct && !((ConfigStruct)value).isStructuralHashCached()) {
+					frame.pendingKeyHash = entry.getKey().hashCode();
+					frames.push(new HashFrame((ConfigStruct)value));
+				} else {
+					frame.hash += mix(entry.getKey().hashCode() * 0x9E3779B97F4A7C15L + valueHash(value));
+				}
+
+				continue;
+			}
+
+			frames.pop();
+
+			// Reserve 0 to mean 'not yet calculated'
+			long hash = frame.hash == 0 ? 1 : frame.hash;
+			if (frame.struct.frozen)
+				frame.struct.structuralHash = hash;
+
+			if (frames.isEmpty())
+				return hash;
+
+			childHash = hash;
+			returning = true;
+		}
+	}
+
+	private boolean isStructuralHashCached() {
+		return frozen && structuralHash != 0;
+	}
+
+	private static long valueHash(@Nullable Object value) {
+		if (value == null)
+			return 0x5DEECE66DL;
+		else if (value instanceof ConfigStruct)
+			return ((ConfigStruct)value).structuralHash; // Only called when cached
+
+		// Type name prevents collisions between for example Integer 1 and Float 1.0f
+		return mix(value.getClass().getName().hashCode()) ^ value.hashCode();
+	}
+
+	/**
+	 * The 64-bit finalizer from MurmurHash3.
+	 */
+	private static long mix(long hash) {
+		hash ^= hash >>> 33;
+		hash *= 0xFF51AFD7ED558CCDL;
+		hash ^= hash >>> 33;
+		hash *= 0xC4CEB9FE1A85EC53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+	/**
+	 * Returns all entries in the tree below this struct, depth-first, each paired with its path from this struct.
+	 * Structs come before their contents.
+	 */
+	public Stream<Entry<ConfigPath, Object>> stream() {
+		return StreamSupport.stream(new ConfigTreeSpliterator(this), false);
+	}
+
+	/**
+	 * Like {@link #stream()}, but divides the tree between threads by subtree. Encounter order is kept.
+	 * <p>
+	 * This struct must be {@link #freeze() frozen}, or at least not lazily loaded and not modified during traversal.
+	 */
+	public Stream<Entry<ConfigPath, Object>> parallelStream() {
+		return StreamSupport.stream(new ConfigTreeSpliterator(this), true);
+	}
+
 	@Override
 	public Iterator<Map.Entry<String, Object>> iterator() {
+		loadPendingContents();
+		if (frozen)
+			return Collections.unmodifiableMap(values).entrySet().iterator();
+
 		return values.entrySet().iterator();
 	}
 
 	@Override
 	public String toString() {
-		StringBuilder sb = new StringBuilder(16384);
-		prettyPrint(this, sb, 0);
-		return sb.toString();
-	}
-
-	private static void prettyPrint(ConfigStruct struct, StringBuilder sb, int indentation) {
-		sb.append("\t".repeat(Math.max(0, indentation)));
-		sb.append(struct.getName()).append(" {\n");
-		indentation++;
-
-		for (Entry<String, Object> entry : struct) {
-			@Nullable Object value = entry.getValue();
-			if (value instanceof ConfigStruct)
-				prettyPrint((ConfigStruct)value, sb, indentation);
-			else if (value == null)
-				sb.append("\t".repeat(Math.max(0, indentation)))
-				  .append(entry.getKey()).append(";\n");
-			else if (value instanceof String)
-				sb.append("\t".repeat(Math.max(0, indentation)))
-				  .append(entry.getKey()).append(" = \"").append(value).append("\";\n");
-			else
-				sb.append("\t".repeat(Math.max(0, indentation)))
-				  .append(entry.getKey()).append(" = ").append(value).append(";\n");
+		StringBuilder sb = new StringBuilder(256);
+		try {
+			new ConfigWriter(sb, false).write(this);
+		} catch (IOException ex) {
+			throw new AssertionError(ex); // StringBuilder doesn't throw
 		}
 
-		indentation--;
-		sb.append("\t".repeat(Math.max(0, indentation))).append("}\n");
+		return sb.toString();
 	}
 }
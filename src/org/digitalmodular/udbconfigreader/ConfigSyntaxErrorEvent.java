@@ -0,0 +1,34 @@
+package org.digitalmodular.udbconfigreader;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for an error in the contents of a configuration file: a syntax error, an unclosed string,
+ * an unknown function or an invalid include.
+ *
+ * @author Zom-B
+ */
+// Created 2026-10-19
+@Name("org.digitalmodular.udbconfigreader.SyntaxError")
+@Label("Config Syntax Error")
+@Category("UDB Config Reader")
+final class ConfigSyntaxErrorEvent extends Event {
+	@Label("Location")
+	String location;
+
+	@Label("Message")
+	String message;
+
+	static void emit(String location, String message) {
+		ConfigSyntaxErrorEvent event = new ConfigSyntaxErrorEvent();
+		if (!event.isEnabled())
+			return;
+
+		event.location = location;
+		event.message = message;
+		event.commit();
+	}
+}
@@ -0,0 +1,162 @@
+package org.digitalmodular.udbconfigreader;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Traverses all entries of a {@code ConfigStruct} tree depth-first, pairing each value with its path from the root.
+ * Each struct is reported before its contents.
+ * <p>
+ * The remaining work is a stack of ranges of sibling entries, with the innermost range on top, so the ranges are
+ * traversed from top to bottom. Splitting divides the bottom range (the one traversed last) in half: the new
+ * spliterator gets the other ranges and the first half, and this one keeps the second half. When the bottom range has
+ * only one entry left, and it's a struct, it's opened first so its contents can be divided instead.
+ * <p>
+ * The contents of each struct are copied to an array the first time it's traversed. The size of the tree isn't known
+ * in advance, so the estimated size is halved on each split, like {@code Spliterators.spliteratorUnknownSize()}.
+ *
+ * @author Zom-B
+ */
+// Created 2026-10-19
+final class ConfigTreeSpliterator implements Spliterator<Entry<ConfigPath, Object>> {
+	private static final class Range {
+		private final ConfigPath              parent;
+		private final Entry<String, Object>[] entries;
+		private final boolean                 descend;
+		private final int                     end;
+
+		private int next;
+
+		/**
+		 * @param descend whether to traverse the contents of struct entries after reporting them
+		 */
+		private Range(ConfigPath parent, Entry<String, Object>[] entries, int next, int end, boolean descend) {
+			this.parent = parent;
+			this.entries = entries;
+			this.next = next;
+			this.end = end;
+			this.descend = descend;
+		}
+
+		private int remaining() {
+			return end - next;
+		}
+	}
+
+	private static final ConfigPath ROOT = ConfigPath.compile("");
+
+	/**
+	 * The ranges still to traverse. The last element is the top of the stack.
+	 */
+	private final List<Range> ranges;
+
+	private long estimatedSize;
+
+	ConfigTreeSpliterator(ConfigStruct root) {
+		ranges = new ArrayList<>(8);
+		ranges.add(contentsOf(ROOT, root));
+		estimatedSize = Long.MAX_VALUE;
+	}
+
+	private ConfigTreeSpliterator(List<Range> ranges, long estimatedSize) {
+		this.ranges = ranges;
+		this.estimatedSize = estimatedSize;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super Entry<ConfigPath, Object>> action) {
+		while (!ranges.isEmpty()) {
+			Range range = ranges.get(ranges.size() - 1);
+			if (range.remaining() == 0) {
+				ranges.remove(ranges.size() - 1);
+				continue;
+			}
+
+			Entry<String, Object> entry = range.entries[range.next++];
+			ConfigPath            path  = range.parent.child(entry.getKey());
+			@Nullable Object      value = entry.getValue();
+
+			if (range.descend && value instanceof ConfigStruct)
+				ranges.add(contentsOf(path, (ConfigStruct)value));
+
+			action.accept(new SimpleImmutableEntry<>(path, value));
+			return true;
+		}
+
+		return false;
+	}
+
+	@Override
+	public @Nullable Spliterator<Entry<ConfigPath, Object>> trySplit() {
+		while (!ranges.isEmpty() && ranges.get(0).remaining() == 0)
+			ranges.remove(0);
+
+		if (ranges.isEmpty())
+			return null;
+
+		Range bottom = ranges.get(0);
+		if (bottom.remaining() == 1) {
+			if (ranges.size() > 1)
+				return splitBeforeBottom();
+
+			Entry<String, Object> entry = bottom.entries[bottom.next];
+			if (!bottom.descend || !(entry.getValue() instanceof ConfigStruct))
+				return null;
+
+			// Open the struct, so the new bottom range consists of its contents
+			ConfigPath path = bottom.parent.child(entry.getKey());
+			ranges.set(0, contentsOf(path, (ConfigStruct)entry.getValue()));
+			ranges.add(1, new Range(bottom.parent, bottom.entries, bottom.next, bottom.end, false));
+			return splitBeforeBottom();
+		}
+
+		int mid = bottom.next + bottom.remaining() / 2;
+
+		List<Range> prefix = new ArrayList<>(ranges.size() + 4);
+		prefix.add(new Range(bottom.parent, bottom.entries, bottom.next, mid, bottom.descend));
+		prefix.addAll(ranges.subList(1, ranges.size()));
+		bottom.next = mid;
+		ranges.subList(1, ranges.size()).clear();
+
+		return newPrefix(prefix);
+	}
+
+	/**
+	 * Splits off everything except the bottom range.
+	 */
+	private Spliterator<Entry<ConfigPath, Object>> splitBeforeBottom() {
+		List<Range> prefix = new ArrayList<>(ranges.subList(1, ranges.size()));
+		ranges.subList(1, ranges.size()).clear();
+		return newPrefix(prefix);
+	}
+
+	private Spliterator<Entry<ConfigPath, Object>> newPrefix(List<Range> prefix) {
+		estimatedSize >>>= 1;
+		return new ConfigTreeSpliterator(prefix, estimatedSize);
+	}
+
+	@Override
+	public long estimateSize() {
+		return ranges.isEmpty() ? 0 : estimatedSize;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | NONNULL;
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static Range contentsOf(ConfigPath path, ConfigStruct struct) {
+		List<Entry<String, Object>> entries = new ArrayList<>(struct.getValues().size());
+		for (Entry<String, Object> entry : struct)
+			entries.add(entry);
+
+		return new Range(path, entries.toArray(new Entry[0]), 0, entries.size(), true);
+	}
+}
@@ -0,0 +1,184 @@
+package org.digitalmodular.udbconfigreader;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map.Entry;
+
+import org.jetbrains.annotations.Nullable;
+
+import static org.digitalmodular.utilities.ValidatorUtilities.requireNonNull;
+
+/**
+ * Writes {@code ConfigStruct} structures in configuration file syntax, directly to the output.
+ * <p>
+ * The output can be parsed back by {@link RecursiveConfigFileLoader} into an identical structure:
+ * strings are escaped, and {@code Float} values get an {@code f} suffix to distinguish them from {@code Double}.
+ * <p>
+ * In compact mode, all indentation and newlines are omitted. Otherwise, note that the size of the indentation grows
+ * quadratically with the nesting depth, which matters for very deeply nested structures.
+ *
+ * @author Zom-B
+ */
+// Created 2026-10-19
+public class ConfigWriter implements Flushable {
+	private static final String[] INDENTATIONS = new String[17];
+
+	static {
+		INDENTATIONS[0] = "";
+		for (int i = 1; i < INDENTATIONS.length; i++)
+			INDENTATIONS[i] = INDENTATIONS[i - 1] + '\t';
+	}
+
+	private final Appendable out;
+	private final boolean    compact;
+
+	public ConfigWriter(Appendable out, boolean compact) {
+		this.out = requireNonNull(out, "out");
+		this.compact = compact;
+	}
+
+	/**
+	 * Writes UTF-8 to the stream, through a buffer. Call {@link #flush()} when done writing.
+	 */
+	public ConfigWriter(OutputStream out, boolean compact) {
+		this(new BufferedWriter(new OutputStreamWriter(requireNonNull(out, "out"), StandardCharsets.UTF_8)), compact);
+	}
+
+	/**
+	 * Writes the struct as a block, with its name as the key.
+	 */
+	public void write(ConfigStruct struct) throws IOException {
+		writeStruct(requireNonNull(struct, "struct"), 0);
+	}
+
+	/**
+	 * Writes the entries of the struct without surrounding block, for example to write an entire configuration file.
+	 */
+	public void writeContents(ConfigStruct struct) throws IOException {
+		writeEntries(requireNonNull(struct, "struct"), 0);
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if (out instanceof Flushable)
+			((Flushable)out).flush();
+	}
+
+	private void writeStruct(ConfigStruct struct, int indentation) throws IOException {
+		writeBlockStart(struct, indentation);
+		writeEntries(struct, indentation + 1);
+		writeBlockEnd(indentation);
+	}
+
+	/**
+	 * Writes the entries, and the blocks within, depth-first with an explicit stack,
+	 * so arbitrarily deep structures can be written.
+	 */
+	private void writeEntries(ConfigStruct struct, int indentation) throws IOException {
+		Deque<Iterator<Entry<String, Object>>> iterators = new ArrayDeque<>(16);
+		iterators.push(struct.iterator());
+
+		while (!iterators.isEmpty()) {
+			Iterator<Entry<String, Object>> iterator = iterators.getFirst();
+			int                             depth    = indentation + iterators.size() - 1;
+			if (!iterator.hasNext()) {
+				iterators.pop();
+				if (!iterators.isEmpty())
+					writeBlockEnd(depth - 1);
+
+				continue;
+			}
+
+			Entry<String, Object> entry = iterator.next();
+			@Nullable Object      value = entry.getValue();
+			if (value instanceof ConfigStruct) {
+				writeBlockStart((ConfigStruct)value, depth);
+				iterators.push(((ConfigStruct)value).iterator());
+				continue;
+			}
+
+			writeIndentation(depth);
+			out.append(entry.getKey());
+
+			if (value != null) {
+				out.append(compact ? "=" : " = ");
+				writeValue(value);
+			}
+
+			out.append(';');
+			writeNewline();
+		}
+	}
+
+	private void writeBlockStart(ConfigStruct struct, int indentation) throws IOException {
+		writeIndentation(indentation);
+		out.append(struct.getName()).append(compact ? "{" : " {");
+		writeNewline();
+	}
+
+	private void writeBlockEnd(int indentation) throws IOException {
+		writeIndentation(indentation);
+		out.append('}');
+		writeNewline();
+	}
+
+	private void writeValue(Object value) throws IOException {
+		if (value instanceof String) {
+			out.append('"');
+			writeEscaped((String)value);
+			out.append('"');
+		} else if (value instanceof Float) {
+			out.append(value.toString()).append('f');
+		} else {
+			out.append(value.toString());
+		}
+	}
+
+	/**
+	 * Escapes the characters that {@code StringsLexer} unescapes, appending unescaped runs in one go.
+	 */
+	private void writeEscaped(String text) throws IOException {
+		int start = 0;
+		for (int i = 0; i < text.length(); i++) {
+			char ch = text.charAt(i);
+
+			char escaped;
+			if (ch == '\\' || ch == '"')
+				escaped = ch;
+			else if (ch == '\n')
+				escaped = 'n';
+			else
+				continue;
+
+			out.append(text, start, i).append('\\').append(escaped);
+			start = i + 1;
+		}
+
+		out.append(text, start, text.length());
+	}
+
+	private void writeIndentation(int indentation) throws IOException {
+		if (compact)
+			return;
+
+		// Deeper levels repeat the longest one, instead of caching every length
+		while (indentation >= INDENTATIONS.length) {
+			out.append(INDENTATIONS[INDENTATIONS.length - 1]);
+			indentation -= INDENTATIONS.length - 1;
+		}
+
+		out.append(INDENTATIONS[indentation]);
+	}
+
+	private void writeNewline() throws IOException {
+		if (!compact)
+			out.append('\n');
+	}
+}
@@ -1,8 +1,12 @@
 package org.digitalmodular.udbconfigreader;
 
 import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
 import java.nio.file.Path;
 
+import static org.digitalmodular.utilities.ValidatorUtilities.requireNonNull;
+
 /**
  * @author Zom-B
  */
@@ -20,4 +24,73 @@ public final class GameConfigurationIO {
 
 		return parser.loadConfigurationFile(file);
 	}
+
+	/**
+	 * Load a configuration file from a zip archive (like a {@code .pk3} file) as a {@code ConfigStruct} structure,
+	 * without extracting it. Includes are resolved within the archive.
+	 * <p>
+	 * The archive is closed afterwards, and its files are removed from {@link ConfigFileCache}.
+	 * To load several configurations from one archive while sharing the cache,
+	 * open it as a {@code FileSystem} instead, and pass paths of that file system to the other methods.
+	 *
+	 * @param file the path of the configuration file inside the archive
+	 */
+	public static ConfigStruct loadGameConfigurationFromArchive(Path archive, String file) throws IOException {
+		requireNonNull(archive, "archive");
+		requireNonNull(file, "file");
+
+		try (FileSystem fileSystem = FileSystems.newFileSystem(archive, (ClassLoader)null)) {
+			try {
+				return loadGameConfiguration(fileSystem.getPath(file));
+			} finally {
+				ConfigFileCache.INSTANCE.removeAll(fileSystem);
+			}
+		}
+	}
+
+	/**
+	 * Load a configuration file as a {@code ConfigStruct} structure,
+	 * while measuring the loading of it and every file it includes.
+	 *
+	 * @param statistics receives the measurements
+	 */
+	public static ConfigStruct loadGameConfiguration(Path file, LoadStatistics statistics) throws IOException {
+		RecursiveConfigFileLoader parser = new RecursiveConfigFileLoader(false, requireNonNull(statistics, "statistics"));
+
+		return parser.loadConfigurationFile(file);
+	}
+
+	/**
+	 * Load only the parts of a configuration file that are selected by the projection,
+	 * as a {@code ConfigStruct} structure.
+	 */
+	public static ConfigStruct loadGameConfiguration(Path file, ConfigProjection projection) throws IOException {
+		RecursiveConfigFileLoader parser = new RecursiveConfigFileLoader();
+
+		return parser.loadConfigurationFile(file, projection);
+	}
+
+	/**
+	 * Load a configuration file as a {@code ConfigStruct} structure, deferring the parsing of top-level blocks
+	 * until they are first accessed.
+	 * <p>
+	 * This is faster when only a few sections of the configuration are needed,
+	 * but syntax errors inside blocks are only reported when the block is accessed.
+	 * The returned structure must be {@link ConfigStruct#freeze() frozen} before sharing it between threads.
+	 */
+	public static ConfigStruct loadGameConfigurationLazily(Path file) throws IOException {
+		RecursiveConfigFileLoader parser = new RecursiveConfigFileLoader(true);
+
+		return parser.loadConfigurationFile(file);
+	}
+
+	/**
+	 * Parse a configuration file without building a {@code ConfigStruct} structure,
+	 * reporting its contents to the handler instead. Includes are reported, but not followed.
+	 */
+	public static void visitGameConfiguration(Path file, ConfigEventHandler handler) throws IOException {
+		RecursiveConfigFileLoader parser = new RecursiveConfigFileLoader();
+
+		parser.visitConfigurationFile(file, handler);
+	}
 }
@@ -0,0 +1,1083 @@
+package org.digitalmodular.udbconfigreader;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jetbrains.annotations.Nullable;
+
+import static org.digitalmodular.utilities.ValidatorUtilities.requireNonNull;
+
+import org.digitalmodular.udbconfigreader.lexer.ConfigToken;
+import static org.digitalmodular.udbconfigreader.lexer.ConfigToken.TokenType;
+
+/**
+ * Keeps a configuration file in memory together with its parsed structure,
+ * and updates the structure after each edit by re-analyzing only the affected part of the text.
+ * <p>
+ * The text is divided into segments, each holding one top-level statement (preceded by any whitespace and comments)
+ * and the {@code ConfigStruct} fragment it produced. The statements inside blocks are divided into segments as well,
+ * up to {@value #MAX_NESTING} levels deep, so an edit is handled by the innermost block that contains it.
+ * There, it's re-lexed and re-parsed from the start of the first segment it touches, up to the end of the last
+ * segment it touches. When the edit changes the meaning of the text after it (for example by opening a string or a
+ * block), the re-analysis extends one segment at a time until the statements line up with an existing segment
+ * boundary again. If that doesn't happen before the closing brace of the block, the block is re-analyzed as a whole
+ * statement of the enclosing block, and so on.
+ * <p>
+ * Afterwards, the blocks containing the edit and the configuration are reassembled from the fragments of their
+ * segments, which shares the (frozen) fragments rather than copying them, except where statements with the same key
+ * need to be merged.
+ * <p>
+ * Statements containing errors are left out of the configuration, or out of the block they're in, and their errors
+ * are available from {@link #getErrors()}. A block of which the last statement is incomplete is left out entirely.
+ * Like other statements, statements with errors are only re-analyzed when an edit touches them, except that the
+ * error is created again when an edit elsewhere moved it. The result of a sequence of edits is the same as when the
+ * final text is analyzed at once.
+ * <p>
+ * Strings are lexed before comments and may span lines, so a single unclosed string changes the meaning of all text
+ * after it, and lexing only fails at the end of the text. Therefore, when the text can't be lexed as a whole, each
+ * string that's still open at the end of its line is an error instead, from its quote up to the end of that line,
+ * and it ends the statement it's in. The statements around it are analyzed as usual. To know when the text can be
+ * lexed, each segment records how it changes the state of the string lexer. When an edit changes whether the text can
+ * be lexed, the segments with strings that span lines, or aren't closed, are re-analyzed as well.
+ * <p>
+ * Statements are parsed with a {@link ConfigFileCache} of the session, which freezes the structures of included
+ * files, so statements that include them copy them before merging into them, and the result doesn't depend on the
+ * order in which statements were parsed. Included files are read once per session, so later changes to them are
+ * not seen.
+ *
+ * @author Zom-B
+ */
+// Created 2026-10-19
+public class IncrementalConfigSession {
+	/**
+	 * Blocks nested deeper than this are analyzed as a single statement, which bounds the recursion.
+	 */
+	private static final int MAX_NESTING = 8;
+
+	// The states of the string lexer
+	private static final int OUTSIDE   = 0;
+	private static final int IN_STRING = 1;
+	private static final int ESCAPING  = 2;
+
+	// Transfers hold the state of the string lexer after a text for each state before it, in two bits per state
+	private static final int IDENTITY      = OUTSIDE | IN_STRING << 2 | ESCAPING << 4;
+	private static final int CLOSING_BRACE = OUTSIDE | IN_STRING << 2 | IN_STRING << 4;
+
+	private static final class Segment {
+		/**
+		 * The offset and line number of the start, relative to the start of the segment of the enclosing block,
+		 * or for top-level segments, to the start of the text (where the line number is 1).
+		 */
+		private int start;
+		private int lineNumber;
+
+		/**
+		 * The length of the text, which ends with the last token of the statement, and the number of line breaks in it.
+		 * Text after the last statement of a block (or of the text) is not part of any segment.
+		 */
+		private final int length;
+		private final int lineCount;
+
+		/**
+		 * Exactly one of these is {@code null}.
+		 */
+		private final @Nullable ConfigStruct     fragment;
+		private final @Nullable RuntimeException error;
+
+		/**
+		 * When the statement is a block that's divided into segments, the block.
+		 */
+		private final @Nullable Block block;
+
+		/**
+		 * The transfer of the text.
+		 */
+		private final int     transfer;
+		/**
+		 * Whether the text has a string that's still open at a line break or at its end, so it's lexed differently
+		 * depending on whether the text can be lexed as a whole. For blocks, only the text up to the interior
+		 * is considered, as such strings can be hidden in comments.
+		 */
+		private final boolean openString;
+
+		/**
+		 * For errors, the location of the start at the time the error was created.
+		 */
+		private final int errorLine;
+		private final int errorColumn;
+
+		private Segment(int start,
+		                int lineNumber,
+		                int length,
+		                int lineCount,
+		                @Nullable ConfigStruct fragment,
+		                @Nullable RuntimeException error,
+		                @Nullable Block block,
+		                int transfer,
+		                boolean openString,
+		                int errorLine,
+		                int errorColumn) {
+			this.start = start;
+			this.lineNumber = lineNumber;
+			this.length = length;
+			this.lineCount = lineCount;
+			this.fragment = fragment;
+			this.error = error;
+			this.block = block;
+			this.transfer = transfer;
+			this.openString = openString;
+			this.errorLine = errorLine;
+			this.errorColumn = errorColumn;
+		}
+	}
+
+	/**
+	 * The statements of a block. Offsets and line numbers are relative to the start of the segment of the block.
+	 */
+	private static final class Block {
+		private final String        name;
+		/**
+		 * The first character after the opening brace.
+		 */
+		private final int           interiorStart;
+		private final int           interiorLine;
+		/**
+		 * The closing brace.
+		 */
+		private       int           interiorEnd;
+		/**
+		 * The transfer of the text up to the interior.
+		 */
+		private final int           headerTransfer;
+		private final List<Segment> children;
+
+		/**
+		 * The number of segments with errors among the children, at any depth.
+		 */
+		private int     errorCount      = 0;
+		/**
+		 * The number of segments with open strings among the children, at any depth, plus one when the text after the
+		 * last child has one.
+		 */
+		private int     openStringCount = 0;
+		private boolean trailingOpenString;
+		/**
+		 * The transfer of the interior.
+		 */
+		private int     transfer        = IDENTITY;
+
+		private Block(String name,
+		              int interiorStart,
+		              int interiorLine,
+		              int interiorEnd,
+		              int headerTransfer,
+		              List<Segment> children) {
+			this.name = name;
+			this.interiorStart = interiorStart;
+			this.interiorLine = interiorLine;
+			this.interiorEnd = interiorEnd;
+			this.headerTransfer = headerTransfer;
+			this.children = children;
+		}
+	}
+
+	/**
+	 * The tokens of a range of the text, and the offsets of its lines to locate them in the text.
+	 * <p>
+	 * A string that isn't closed is a {@link TokenType#STRING_DELIMITER} token (which the lexers never leave behind)
+	 * with the text from the quote up to the end of the line or of the range, and the error of lexing it.
+	 */
+	private static final class LexedRange {
+		private final List<ConfigToken>                          tokens = new ArrayList<>(64);
+		private final Map<ConfigToken, IllegalArgumentException> errors = new IdentityHashMap<>(4);
+		private final int                                        firstLineNumber;
+		/**
+		 * The offset in the text of the start of each line (or the virtual start, for the first line).
+		 */
+		private final int[]                                      lineStarts;
+
+		private LexedRange(int firstLineNumber, int[] lineStarts) {
+			this.firstLineNumber = firstLineNumber;
+			this.lineStarts = lineStarts;
+		}
+
+		private int offsetOf(ConfigToken token) {
+			return lineStarts[token.getLineNumber() - firstLineNumber] + token.getColumn() - 1;
+		}
+
+		/**
+		 * Returns the offset after the token. Only valid for tokens of which the text is the source text,
+		 * like the tokens that end statements.
+		 */
+		private int endOf(ConfigToken token) {
+			return offsetOf(token) + token.getText().length();
+		}
+
+		/**
+		 * Returns the index of the line containing the offset.
+		 */
+		private int lineIndexOf(int offset) {
+			int index = Arrays.binarySearch(lineStarts, offset);
+			return index >= 0 ? index : -index - 2;
+		}
+	}
+
+	/**
+	 * The location of an edit in the text before the edit, and the change in length and line count.
+	 */
+	private static final class Edit {
+		private final int offset;
+		private final int end;
+		private final int oldLength;
+		private final int delta;
+		private final int lineDelta;
+
+		private Edit(int offset, int end, int oldLength, int delta, int lineDelta) {
+			this.offset = offset;
+			this.end = end;
+			this.oldLength = oldLength;
+			this.delta = delta;
+			this.lineDelta = lineDelta;
+		}
+	}
+
+	private final Path          file;
+	private final StringBuilder text;
+
+	private final ConfigFileCache cache = new ConfigFileCache(true);
+
+	private final List<Segment> segments = new ArrayList<>(64);
+
+	/**
+	 * Whether strings are ended at the end of their line, because the text can't be lexed as a whole.
+	 */
+	private boolean      confineStrings;
+	private ConfigStruct configuration;
+
+	/**
+	 * Parses the text entirely.
+	 *
+	 * @param file the location of the text, for resolving includes, and for reporting error locations.
+	 */
+	public IncrementalConfigSession(Path file, String text) {
+		this.file = requireNonNull(file, "file");
+		this.text = new StringBuilder(requireNonNull(text, "text"));
+
+		confineStrings = stateAfter(scan(this.text, 0, this.text.length()), OUTSIDE) != OUTSIDE;
+		configuration = new ConfigStruct(file.toString(), 16);
+		reanalyze(0, 0, 1);
+		assembleConfiguration();
+	}
+
+	public static IncrementalConfigSession open(Path file) throws IOException {
+		return new IncrementalConfigSession(file, new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+	}
+
+	public String getText() {
+		return text.toString();
+	}
+
+	/**
+	 * Returns the configuration as of the last edit. Each edit produces a new instance.
+	 * <p>
+	 * Top-level entries may be shared with earlier instances, and are frozen.
+	 */
+	public ConfigStruct getConfiguration() {
+		return configuration;
+	}
+
+	/**
+	 * Returns the errors in the text as of the last edit, in order of appearance.
+	 * <p>
+	 * Errors that were moved by edits since they were created are created again here, to update their locations.
+	 */
+	public List<RuntimeException> getErrors() {
+		List<RuntimeException> errors = new ArrayList<>(4);
+		addErrors(segments, 0, 1, errors);
+		return errors;
+	}
+
+	private void addErrors(List<Segment> level, int base, int baseLine, List<RuntimeException> errors) {
+		for (int i = 0; i < level.size(); i++) {
+			Segment segment    = level.get(i);
+			int     start      = base + segment.start;
+			int     lineNumber = baseLine + segment.lineNumber;
+
+			if (segment.error != null) {
+				if (segment.errorLine != lineNumber || segment.errorColumn != columnOf(start)) {
+					@Nullable LexedRange lexed = lex(start, start + segment.length, lineNumber);
+					assert lexed != null : "Segment ends inside a string";
+
+					Segment moved = parseSegment(lexed, lexed.tokens, start, lineNumber, start + segment.length,
+					                             base, baseLine);
+					// An included file that failed before could be readable now, but that's only seen after an edit
+					if (moved.error != null) {
+						level.set(i, moved);
+						segment = moved;
+					}
+				}
+
+				errors.add(segment.error);
+			} else if (segment.block != null && segment.block.errorCount > 0) {
+				addErrors(segment.block.children, start, lineNumber, errors);
+			}
+		}
+	}
+
+	/**
+	 * Replaces {@code removedLength} characters at {@code offset} with {@code insertedText}, and updates the
+	 * configuration.
+	 */
+	public void applyEdit(int offset, int removedLength, String insertedText) {
+		requireNonNull(insertedText, "insertedText");
+		if (offset < 0 || removedLength < 0 || offset + removedLength > text.length())
+			throw new IndexOutOfBoundsException("Edit out of bounds: offset=" + offset +
+			                                    ", removedLength=" + removedLength + ", length=" + text.length());
+
+		int lineDelta = countNewlines(insertedText, 0, insertedText.length()) -
+		                countNewlines(text, offset, offset + removedLength);
+		int delta     = insertedText.length() - removedLength;
+		Edit edit = new Edit(offset, offset + removedLength, text.length(), delta, lineDelta);
+
+		boolean confine = confineStrings;
+		if (canChangeStrings(offset, removedLength, insertedText)) {
+			int transfer = compose(compose(transfer(segments, 0, 0, offset),
+			                               scan(insertedText, 0, insertedText.length())),
+			                       transfer(segments, 0, edit.end, text.length()));
+			confine = stateAfter(transfer, OUTSIDE) != OUTSIDE;
+		}
+
+		text.replace(offset, offset + removedLength, insertedText);
+
+		boolean switched = confine != confineStrings;
+		confineStrings = confine;
+
+		edit(segments, null, 0, 1, 0, edit);
+		if (switched)
+			reanalyzeOpenStrings();
+
+		assembleConfiguration();
+	}
+
+	/**
+	 * Returns whether an edit can change the state of the string lexer after it. Only quotes and backslashes do,
+	 * and any character after a backslash.
+	 */
+	private boolean canChangeStrings(int offset, int removedLength, String insertedText) {
+		if (offset > 0 && text.charAt(offset - 1) == '\\')
+			return true;
+
+		return hasQuoteOrBackslash(text, offset, offset + removedLength) ||
+		       hasQuoteOrBackslash(insertedText, 0, insertedText.length());
+	}
+
+	private static boolean hasQuoteOrBackslash(CharSequence chars, int start, int end) {
+		for (int i = start; i < end; i++)
+			if (chars.charAt(i) == '"' || chars.charAt(i) == '\\')
+				return true;
+
+		return false;
+	}
+
+	/**
+	 * Updates the segments of one level (the top level, or the statements of a block) after an edit of the text.
+	 * When the edit lies within a block, this descends into the block.
+	 *
+	 * @param block    the block containing the segments, or {@code null} for the top level
+	 * @param base     the offset in the text that the segments are relative to
+	 * @param baseLine the line number that the segments are relative to
+	 * @param nesting  the number of blocks surrounding the segments
+	 * @return {@code false} if the statements don't fit the block anymore, and the block must be re-analyzed as a
+	 * whole.
+	 */
+	private boolean edit(List<Segment> level,
+	                     @Nullable Block block,
+	                     int base,
+	                     int baseLine,
+	                     int nesting,
+	                     Edit edit) {
+		int bodyStart = block == null ? 0 : base + block.interiorStart;
+		int bodyLine  = block == null ? 1 : baseLine + block.interiorLine;
+		int bodyEnd   = block == null ? edit.oldLength : base + block.interiorEnd;
+
+		int first = 0;
+		int last  = -1;
+		if (!level.isEmpty()) {
+			first = findSegment(level, base, Math.max(bodyStart, edit.offset - 1));
+			last = findSegment(level, base, Math.min(edit.end, bodyEnd - 1));
+
+			// Text after a statement only changes it when it continues its last token, which a closing brace can't
+			Segment segment    = level.get(first);
+			int     segmentEnd = base + segment.start + segment.length;
+			if (edit.offset > segmentEnd || edit.offset == segmentEnd && segment.block != null)
+				first++;
+		}
+
+		if (block != null)
+			block.interiorEnd += edit.delta;
+
+		if (first == last) {
+			Segment         segment      = level.get(first);
+			@Nullable Block inner        = segment.block;
+			int             segmentStart = base + segment.start;
+			if (inner != null &&
+			    edit.offset >= segmentStart + inner.interiorStart &&
+			    edit.end <= segmentStart + inner.interiorEnd &&
+			    edit(inner.children, inner, segmentStart, baseLine + segment.lineNumber, nesting + 1, edit)) {
+				level.set(first, blockSegment(segment.start, segment.lineNumber, segment.length + edit.delta,
+				                              segment.lineCount + edit.lineDelta, inner, segmentStart));
+				shift(level, first + 1, edit);
+				return true;
+			}
+		}
+
+		shift(level, last + 1, edit);
+
+		int start;
+		int lineNumber;
+		if (first <= last) {
+			start = base + level.get(first).start;
+			lineNumber = baseLine + level.get(first).lineNumber;
+		} else if (first > 0) {
+			// The edit is after the last statement
+			Segment previous = level.get(first - 1);
+			start = base + previous.start + previous.length;
+			lineNumber = baseLine + previous.lineNumber + previous.lineCount;
+		} else {
+			start = bodyStart;
+			lineNumber = bodyLine;
+		}
+
+		level.subList(first, last + 1).clear();
+
+		if (block == null) {
+			reanalyze(first, start, lineNumber);
+			return true;
+		}
+
+		return reanalyze(block, base, baseLine, nesting, first, start, lineNumber);
+	}
+
+	/**
+	 * Re-analyzes the top-level text from {@code start} (which must be at a segment boundary) up to the next segment,
+	 * and inserts the resulting segments at index {@code first}.
+	 */
+	private void reanalyze(int first, int start, int lineNumber) {
+		int extension = 1;
+		while (true) {
+			boolean atEnd = first == segments.size();
+			int     end   = atEnd ? text.length() : segments.get(first).start;
+
+			@Nullable LexedRange lexed = lex(start, end, lineNumber);
+			if (lexed == null) {
+				// A string continues into the next segments; include them and try again
+				extension = removeSegments(segments, first, extension);
+				continue;
+			}
+
+			List<ConfigToken> tokens = lexed.tokens;
+			List<Integer>     ends   = new ArrayList<>(16);
+			findStatementEnds(tokens, 0, tokens.size(), ends);
+
+			int tail          = ends.isEmpty() ? 0 : ends.get(ends.size() - 1);
+			int statementsEnd = tail == 0 ? start : lexed.endOf(tokens.get(tail - 1));
+			int tailLine      = tail == 0 ? lineNumber : tokens.get(tail - 1).getLineNumber();
+			if (!atEnd && statementsEnd != end) {
+				// Statements don't line up with the next segment; include more segments and try again
+				extension = removeSegments(segments, first, extension);
+				continue;
+			}
+
+			List<Segment> newSegments = new ArrayList<>(ends.size() + 1);
+			analyzeStatements(lexed, 0, ends, start, lineNumber, 0, 1, 0, newSegments);
+
+			if (tail < tokens.size()) // Incomplete statement; let the parser report it
+				newSegments.add(parseSegment(lexed, tokens.subList(tail, tokens.size()), statementsEnd, tailLine, end,
+				                             0, 1));
+
+			segments.addAll(first, newSegments);
+			return;
+		}
+	}
+
+	/**
+	 * Re-analyzes the statements of a block from {@code start} (which must be at a segment boundary) up to the next
+	 * segment, and inserts the resulting segments at index {@code first}.
+	 *
+	 * @return {@code false} if the statements don't line up with the closing brace of the block.
+	 */
+	private boolean reanalyze(Block block, int base, int baseLine, int nesting, int first, int start, int lineNumber) {
+		List<Segment> children    = block.children;
+		int           interiorEnd = base + block.interiorEnd;
+
+		int extension = 1;
+		while (true) {
+			boolean atEnd = first == children.size();
+			// At the end, include the closing brace, to check that it still closes the block
+			int     end   = atEnd ? interiorEnd + 1 : base + children.get(first).start;
+
+			@Nullable LexedRange lexed = lex(start, end, lineNumber);
+			if (lexed == null) {
+				if (atEnd)
+					return false;
+
+				extension = removeSegments(children, first, extension);
+				continue;
+			}
+
+			List<ConfigToken> tokens = lexed.tokens;
+			int               to     = tokens.size();
+			if (atEnd) {
+				ConfigToken lastToken = to == 0 ? null : tokens.get(to - 1);
+				if (lastToken == null ||
+				    lastToken.getTokenType() != TokenType.BLOCK_END ||
+				    lexed.offsetOf(lastToken) != interiorEnd)
+					return false;
+
+				to--;
+			}
+
+			List<Integer> ends = new ArrayList<>(16);
+			if (findStatementEnds(tokens, 0, to, ends))
+				return false; // The block now ends at another brace
+
+			int tail          = ends.isEmpty() ? 0 : ends.get(ends.size() - 1);
+			int statementsEnd = tail == 0 ? start : lexed.endOf(tokens.get(tail - 1));
+			if (atEnd ? tail < to : statementsEnd != end) {
+				if (atEnd)
+					return false;
+
+				// Statements don't line up with the next segment; include more segments and try again
+				extension = removeSegments(children, first, extension);
+				continue;
+			}
+
+			List<Segment> newChildren = new ArrayList<>(ends.size());
+			analyzeStatements(lexed, 0, ends, start, lineNumber, base, baseLine, nesting, newChildren);
+			children.addAll(first, newChildren);
+			return true;
+		}
+	}
+
+	/**
+	 * Re-analyzes all segments with open strings, after switching between confining strings to their line or not.
+	 */
+	private void reanalyzeOpenStrings() {
+		int size = segments.size();
+		if (size == 0) {
+			if (findOpenString(0, text.length(), true) >= 0)
+				reanalyze(0, 0, 1);
+		} else {
+			Segment last = segments.get(size - 1);
+			if (findOpenString(last.start + last.length, text.length(), true) >= 0)
+				reanalyze(size, last.start + last.length, 1 + last.lineNumber + last.lineCount);
+		}
+
+		for (int i = size - 1; i >= 0; i--) {
+			Segment         segment = segments.get(i);
+			@Nullable Block block   = segment.block;
+			if (!segment.openString && (block == null || block.openStringCount == 0))
+				continue;
+
+			if (!segment.openString && reanalyzeOpenStrings(block, segment.start, 1 + segment.lineNumber, 1)) {
+				segments.set(i, blockSegment(segment.start, segment.lineNumber, segment.length, segment.lineCount,
+				                             block, segment.start));
+				continue;
+			}
+
+			segments.remove(i);
+			reanalyze(i, segment.start, 1 + segment.lineNumber);
+		}
+	}
+
+	/**
+	 * Re-analyzes all segments with open strings inside the block.
+	 *
+	 * @return {@code false} if the block must be re-analyzed as a whole.
+	 */
+	private boolean reanalyzeOpenStrings(Block parent, int base, int baseLine, int nesting) {
+		List<Segment> children = parent.children;
+		int           size     = children.size();
+		if (parent.trailingOpenString) {
+			Segment last      = size == 0 ? null : children.get(size - 1);
+			int     start     = last == null ? parent.interiorStart : last.start + last.length;
+			int     startLine = last == null ? parent.interiorLine : last.lineNumber + last.lineCount;
+			if (!reanalyze(parent, base, baseLine, nesting, size, base + start, baseLine + startLine))
+				return false;
+		}
+
+		for (int i = size - 1; i >= 0; i--) {
+			Segment         child     = children.get(i);
+			@Nullable Block block     = child.block;
+			int             start     = base + child.start;
+			int             startLine = baseLine + child.lineNumber;
+			if (!child.openString && (block == null || block.openStringCount == 0))
+				continue;
+
+			if (!child.openString && reanalyzeOpenStrings(block, start, startLine, nesting + 1)) {
+				children.set(i, blockSegment(child.start, child.lineNumber, child.length, child.lineCount, block,
+				                             start));
+				continue;
+			}
+
+			children.remove(i);
+			if (!reanalyze(parent, base, baseLine, nesting, i, start, startLine))
+				return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Lexes a range of the text, which must start at a segment boundary. Strings that aren't closed become error
+	 * tokens (see {@link LexedRange}).
+	 *
+	 * @return {@code null} if a string is still open at the end of the range, and continues after it.
+	 */
+	private @Nullable LexedRange lex(int start, int end, int lineNumber) {
+		int          column = columnOf(start);
+		List<String> lines  = Arrays.asList(text.substring(start, end).split("\n", -1));
+
+		int[] lineStarts = new int[lines.size()];
+		lineStarts[0] = start - (column - 1);
+		for (int i = 1; i < lineStarts.length; i++)
+			lineStarts[i] = (i == 1 ? start : lineStarts[i - 1]) + lines.get(i - 1).length() + 1;
+
+		LexedRange lexed    = new LexedRange(lineNumber, lineStarts);
+		int        position = start;
+		while (position < end) {
+			int quote = findOpenString(position, end, confineStrings);
+			if (quote < 0) {
+				lexed.tokens.addAll(tokenize(lexed, position, end));
+				break;
+			}
+
+			int errorEnd = confineStrings ? lineEnd(quote, end) : end;
+			if (errorEnd == end && end < text.length() && (!confineStrings || text.charAt(end) != '\n'))
+				return null;
+
+			lexed.tokens.addAll(tokenize(lexed, position, quote));
+
+			int         lineIndex = lexed.lineIndexOf(quote);
+			ConfigToken error     = new ConfigToken(file.getFileName().toString(),
+			                                        lineNumber + lineIndex,
+			                                        quote - lineStarts[lineIndex] + 1,
+			                                        TokenType.STRING_DELIMITER,
+			                                        text.substring(quote, errorEnd));
+			try {
+				tokenize(lexed, quote, errorEnd);
+				throw new AssertionError("String at " + error.getLocationString() + " is closed");
+			} catch (IllegalArgumentException ex) {
+				lexed.tokens.add(error);
+				lexed.errors.put(error, ex);
+			}
+
+			position = errorEnd;
+		}
+
+		return lexed;
+	}
+
+	private List<ConfigToken> tokenize(LexedRange lexed, int start, int end) {
+		if (start == end)
+			return List.of();
+
+		int          lineIndex = lexed.lineIndexOf(start);
+		List<String> lines     = Arrays.asList(text.substring(start, end).split("\n", -1));
+		CharacterReader reader = new CharacterReader(file.getFileName().toString(),
+		                                             lines,
+		                                             lexed.firstLineNumber + lineIndex,
+		                                             start - lexed.lineStarts[lineIndex] + 1);
+		return RecursiveConfigFileLoader.tokenize(reader);
+	}
+
+	/**
+	 * Returns the offset of the quote of the first string that's still open at the end of the range or,
+	 * when {@code confine} is set, at the end of its line, or -1 if there is none.
+	 */
+	private int findOpenString(int start, int end, boolean confine) {
+		int state = OUTSIDE;
+		int quote = -1;
+		for (int i = start; i < end; i++) {
+			char ch = text.charAt(i);
+			if (state != OUTSIDE && confine && ch == '\n')
+				return quote;
+
+			if (state == OUTSIDE && ch == '"')
+				quote = i;
+
+			state = nextState(state, ch);
+		}
+
+		return state == OUTSIDE ? -1 : quote;
+	}
+
+	/**
+	 * Adds the index after the last token of each statement in a range of tokens to {@code ends}.
+	 * Statements end with a {@code ";"}, a {@code ")"}, a {@code "}"} that closes a block, or a string that isn't
+	 * closed. Tokens after the last statement are an incomplete statement.
+	 *
+	 * @return whether there was a {@code "}"} without a matching {@code "{"}, which also ends a statement.
+	 */
+	private static boolean findStatementEnds(List<ConfigToken> tokens, int from, int to, List<Integer> ends) {
+		boolean unmatchedBrace = false;
+		int     depth          = 0;
+		for (int i = from; i < to; i++) {
+			TokenType tokenType = tokens.get(i).getTokenType();
+
+			if (tokenType == TokenType.BLOCK_START) {
+				depth++;
+				continue;
+			} else if (tokenType == TokenType.BLOCK_END) {
+				depth--;
+				if (depth > 0)
+					continue;
+
+				unmatchedBrace |= depth < 0;
+			} else if (depth > 0 ||
+			           tokenType != TokenType.STATEMENT_SEPARATOR &&
+			           tokenType != TokenType.FUNCTION_END &&
+			           tokenType != TokenType.STRING_DELIMITER) {
+				continue;
+			}
+
+			ends.add(i + 1);
+			depth = 0;
+		}
+
+		return unmatchedBrace;
+	}
+
+	/**
+	 * Analyzes each statement into a segment.
+	 *
+	 * @param from      the index of the first token of the first statement
+	 * @param ends      the index after the last token of each statement
+	 * @param bodyStart the offset where the first segment starts
+	 * @param bodyLine  the line number where the first segment starts
+	 */
+	private void analyzeStatements(LexedRange lexed,
+	                               int from,
+	                               List<Integer> ends,
+	                               int bodyStart,
+	                               int bodyLine,
+	                               int base,
+	                               int baseLine,
+	                               int nesting,
+	                               List<Segment> segments) {
+		int statementStart = from;
+		int segmentStart   = bodyStart;
+		int segmentLine    = bodyLine;
+		for (int end : ends) {
+			segments.add(analyzeStatement(lexed, statementStart, end, segmentStart, segmentLine, base, baseLine, nesting));
+
+			ConfigToken lastToken = lexed.tokens.get(end - 1);
+			statementStart = end;
+			segmentStart = lexed.endOf(lastToken);
+			segmentLine = lastToken.getLineNumber();
+		}
+	}
+
+	/**
+	 * Analyzes a complete statement. Blocks are divided into segments, unless they're nested too deep or their
+	 * last statement is incomplete.
+	 */
+	private Segment analyzeStatement(LexedRange lexed,
+	                                 int from,
+	                                 int to,
+	                                 int segmentStart,
+	                                 int segmentLine,
+	                                 int base,
+	                                 int baseLine,
+	                                 int nesting) {
+		List<ConfigToken> tokens     = lexed.tokens;
+		ConfigToken       lastToken  = tokens.get(to - 1);
+		int               segmentEnd = lexed.endOf(lastToken);
+
+		// As the statement is complete, a block ends with its closing brace
+		if (nesting < MAX_NESTING &&
+		    to - from >= 3 &&
+		    tokens.get(from).getTokenType() == TokenType.OTHER &&
+		    tokens.get(from + 1).getTokenType() == TokenType.BLOCK_START &&
+		    lastToken.getTokenType() == TokenType.BLOCK_END) {
+			ConfigToken   openingBrace = tokens.get(from + 1);
+			List<Integer> ends         = new ArrayList<>(16);
+			findStatementEnds(tokens, from + 2, to - 1, ends);
+
+			int tail = ends.isEmpty() ? from + 2 : ends.get(ends.size() - 1);
+			if (tail == to - 1) {
+				int   interiorStart = lexed.offsetOf(openingBrace) + 1;
+				Block block         = new Block(tokens.get(from).getText(),
+				                                interiorStart - segmentStart,
+				                                openingBrace.getLineNumber() - segmentLine,
+				                                lexed.offsetOf(lastToken) - segmentStart,
+				                                scan(text, segmentStart, interiorStart),
+				                                new ArrayList<>(ends.size()));
+
+				analyzeStatements(lexed, from + 2, ends, interiorStart, openingBrace.getLineNumber(),
+				                  segmentStart, segmentLine, nesting + 1, block.children);
+				return blockSegment(segmentStart - base, segmentLine - baseLine, segmentEnd - segmentStart,
+				                    lastToken.getLineNumber() - segmentLine, block, segmentStart);
+			}
+		}
+
+		return parseSegment(lexed, tokens.subList(from, to), segmentStart, segmentLine, segmentEnd, base, baseLine);
+	}
+
+	/**
+	 * Parses the tokens of a segment, unless they contain a string that isn't closed.
+	 *
+	 * @param start      the offset of the segment in the text
+	 * @param lineNumber the line number of the start of the segment
+	 * @param end        the offset after the segment
+	 */
+	private Segment parseSegment(LexedRange lexed,
+	                             List<ConfigToken> tokens,
+	                             int start,
+	                             int lineNumber,
+	                             int end,
+	                             int base,
+	                             int baseLine) {
+		@Nullable RuntimeException error = null;
+		for (ConfigToken token : tokens) {
+			if (token.getTokenType() == TokenType.STRING_DELIMITER) {
+				error = lexed.errors.get(token);
+				break;
+			}
+		}
+
+		ConfigStruct fragment = new ConfigStruct(file.toString(), 4);
+		if (error == null) {
+			try {
+				RecursiveConfigFileLoader loader = new RecursiveConfigFileLoader(false, null, cache);
+				loader.parseTokens(file, fragment, tokens.iterator());
+				fragment.freeze();
+			} catch (RuntimeException ex) {
+				error = ex;
+			}
+		}
+
+		return new Segment(start - base,
+		                   lineNumber - baseLine,
+		                   end - start,
+		                   countNewlines(text, start, end),
+		                   error == null ? fragment : null,
+		                   error,
+		                   null,
+		                   scan(text, start, end),
+		                   findOpenString(start, end, true) >= 0,
+		                   lineNumber,
+		                   columnOf(start));
+	}
+
+	/**
+	 * Creates the segment of a block from its children.
+	 *
+	 * @param segmentStart the offset of the segment in the text
+	 */
+	private Segment blockSegment(int start, int lineNumber, int length, int lineCount, Block block, int segmentStart) {
+		ConfigStruct fragment = assemble(block, segmentStart);
+		int          transfer = compose(compose(block.headerTransfer, block.transfer), CLOSING_BRACE);
+		boolean openString = findOpenString(segmentStart, segmentStart + block.interiorStart, true) >= 0;
+		return new Segment(start, lineNumber, length, lineCount, fragment, null, block, transfer, openString, 0, 0);
+	}
+
+	/**
+	 * Creates the fragment of a block from the fragments of its segments, counts their errors and open strings,
+	 * and composes the transfer of its interior.
+	 */
+	private ConfigStruct assemble(Block block, int segmentStart) {
+		ConfigStruct struct = new ConfigStruct(block.name, 16);
+
+		block.errorCount = 0;
+		block.openStringCount = 0;
+
+		int transfer = IDENTITY;
+		int end      = segmentStart + block.interiorStart;
+		for (Segment child : block.children) {
+			if (child.fragment != null)
+				struct.putAll(child.fragment);
+			else
+				block.errorCount++;
+
+			if (child.block != null) {
+				block.errorCount += child.block.errorCount;
+				block.openStringCount += child.block.openStringCount;
+			}
+
+			if (child.openString)
+				block.openStringCount++;
+
+			transfer = compose(transfer, child.transfer);
+			end = segmentStart + child.start + child.length;
+		}
+
+		block.transfer = compose(transfer, scan(text, end, segmentStart + block.interiorEnd));
+		block.trailingOpenString = findOpenString(end, segmentStart + block.interiorEnd, true) >= 0;
+		if (block.trailingOpenString)
+			block.openStringCount++;
+
+		ConfigStruct fragment = new ConfigStruct(file.toString(), 1);
+		fragment.put(block.name, struct);
+		fragment.freeze();
+		return fragment;
+	}
+
+	private void assembleConfiguration() {
+		ConfigStruct newConfiguration = new ConfigStruct(file.toString(), 16);
+
+		for (Segment segment : segments)
+			if (segment.fragment != null)
+				newConfiguration.putAll(segment.fragment);
+
+		configuration = newConfiguration;
+	}
+
+	/**
+	 * Returns the transfer of a range of the text, using the transfers of the segments that lie entirely inside it.
+	 */
+	private int transfer(List<Segment> level, int base, int from, int to) {
+		int transfer = IDENTITY;
+		int position = from;
+		for (int i = level.isEmpty() ? 0 : findSegment(level, base, from); i < level.size() && position < to; i++) {
+			Segment segment      = level.get(i);
+			int     segmentStart = base + segment.start;
+			int     segmentEnd   = Math.min(segmentStart + segment.length, to);
+			if (segmentEnd <= position)
+				continue;
+
+			@Nullable Block block = segment.block;
+			if (position == segmentStart && segmentEnd == segmentStart + segment.length) {
+				transfer = compose(transfer, segment.transfer);
+			} else if (block != null) {
+				int interiorStart = segmentStart + block.interiorStart;
+				int interiorEnd   = segmentStart + block.interiorEnd;
+				transfer = compose(transfer, scan(text, position, Math.min(segmentEnd, interiorStart)));
+				if (position < interiorEnd && segmentEnd > interiorStart)
+					transfer = compose(transfer, transfer(block.children, segmentStart,
+					                                      Math.max(position, interiorStart),
+					                                      Math.min(segmentEnd, interiorEnd)));
+				transfer = compose(transfer, scan(text, Math.max(position, interiorEnd), segmentEnd));
+			} else {
+				transfer = compose(transfer, scan(text, position, segmentEnd));
+			}
+
+			position = segmentEnd;
+		}
+
+		return compose(transfer, scan(text, position, to));
+	}
+
+	/**
+	 * Returns the transfer of a range of characters.
+	 */
+	private static int scan(CharSequence chars, int start, int end) {
+		int outside  = OUTSIDE;
+		int inString = IN_STRING;
+		int escaping = ESCAPING;
+		for (int i = start; i < end; i++) {
+			char ch = chars.charAt(i);
+			outside = nextState(outside, ch);
+			inString = nextState(inString, ch);
+			escaping = nextState(escaping, ch);
+		}
+
+		return outside | inString << 2 | escaping << 4;
+	}
+
+	/**
+	 * Returns the transfer of two consecutive texts.
+	 */
+	private static int compose(int first, int second) {
+		int transfer = 0;
+		for (int state = OUTSIDE; state <= ESCAPING; state++)
+			transfer |= stateAfter(second, stateAfter(first, state)) << state * 2;
+
+		return transfer;
+	}
+
+	private static int stateAfter(int transfer, int state) {
+		return transfer >>> state * 2 & 3;
+	}
+
+	/**
+	 * Follows the string lexer, in which a backslash escapes the next character of a string.
+	 */
+	private static int nextState(int state, char ch) {
+		if (state == ESCAPING)
+			return IN_STRING;
+		else if (ch == '"')
+			return state == OUTSIDE ? IN_STRING : OUTSIDE;
+		else if (ch == '\\' && state == IN_STRING)
+			return ESCAPING;
+
+		return state;
+	}
+
+	/**
+	 * Returns the offset of the first line break in the range, or the end of the range.
+	 */
+	private int lineEnd(int start, int end) {
+		int position = start;
+		while (position < end && text.charAt(position) != '\n')
+			position++;
+
+		return position;
+	}
+
+	private int columnOf(int offset) {
+		return offset - (text.lastIndexOf("\n", offset - 1) + 1) + 1;
+	}
+
+	/**
+	 * Returns the index of the segment containing the offset.
+	 */
+	private static int findSegment(List<Segment> segments, int base, int offset) {
+		int low  = 0;
+		int high = segments.size() - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (base + segments.get(mid).start <= offset)
+				low = mid;
+			else
+				high = mid - 1;
+		}
+
+		return low;
+	}
+
+	/**
+	 * Removes the segments that a re-analysis extends over. Each time twice as many are removed as before,
+	 * so extending over many segments doesn't re-lex the same text many times.
+	 *
+	 * @return the number of segments to remove the next time.
+	 */
+	private static int removeSegments(List<Segment> segments, int first, int count) {
+		segments.subList(first, Math.min(first + count, segments.size())).clear();
+		return count * 2;
+	}
+
+	private static void shift(List<Segment> segments, int from, Edit edit) {
+		for (int i = from; i < segments.size(); i++) {
+			Segment segment = segments.get(i);
+			segment.start += edit.delta;
+			segment.lineNumber += edit.lineDelta;
+		}
+	}
+
+	private static int countNewlines(CharSequence text, int start, int end) {
+		int count = 0;
+		for (int i = start; i < end; i++)
+			if (text.charAt(i) == '\n')
+				count++;
+
+		return count;
+	}
+}
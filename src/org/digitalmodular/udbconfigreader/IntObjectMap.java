@@ -0,0 +1,81 @@
+package org.digitalmodular.udbconfigreader;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Minimal open-addressing map from primitive {@code int} keys to non-null values, with linear probing.
+ * <p>
+ * Only supports adding and looking up, which is all that's needed for the numeric-key index of
+ * {@link ConfigStruct}.
+ *
+ * @author Zom-B
+ */
+// Created 2026-10-19
+final class IntObjectMap<V> {
+	private final int[]    keys;
+	private final Object[] values;
+	private final int      mask;
+
+	private int size = 0;
+
+	/**
+	 * @param expectedSize the number of elements that will be added. Adding more will fail.
+	 */
+	IntObjectMap(int expectedSize) {
+		// Keep the load factor at or below 0.5 so probe sequences stay short
+		int capacity = Integer.highestOneBit(Math.max(2, expectedSize) * 2 - 1) << 1;
+
+		keys = new int[capacity];
+		values = new Object[capacity];
+		mask = capacity - 1;
+	}
+
+	int size() {
+		return size;
+	}
+
+	int capacity() {
+		return keys.length;
+	}
+
+	void put(int key, V value) {
+		assert value != null;
+
+		int slot = slotOf(key);
+		while (values[slot] != null) {
+			if (keys[slot] == key) {
+				values[slot] = value;
+				return;
+			}
+
+			slot = (slot + 1) & mask;
+		}
+
+		if (size == keys.length - 1)
+			throw new IllegalStateException("IntObjectMap is full");
+
+		keys[slot] = key;
+		values[slot] = value;
+		size++;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Nullable V get(int key) {
+		int slot = slotOf(key);
+
+		@Nullable Object value;
+		while ((value = values[slot]) != null) {
+			if (keys[slot] == key)
+				return (V)value;
+
+			slot = (slot + 1) & mask;
+		}
+
+		return null;
+	}
+
+	private int slotOf(int key) {
+		int hash = key * 0x9E3779B9;
+		return (hash ^ (hash >>> 16)) & mask;
+	}
+}
@@ -0,0 +1,138 @@
+package org.digitalmodular.udbconfigreader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.jetbrains.annotations.Nullable;
+
+import org.digitalmodular.udbconfigreader.lexer.CleaningLexer;
+import org.digitalmodular.udbconfigreader.lexer.CommentsLexer;
+import org.digitalmodular.udbconfigreader.lexer.ConfigToken;
+import org.digitalmodular.udbconfigreader.lexer.ConfigTokenizer;
+import org.digitalmodular.udbconfigreader.lexer.KeywordLexer;
+import org.digitalmodular.udbconfigreader.lexer.StringsLexer;
+
+/**
+ * The buffers used for loading configuration files, kept per thread and reused by every file loaded on that thread.
+ * <p>
+ * The tokenizer and lexers run one after another, so they share two intermediate token lists and one
+ * {@code StringBuilder}. The resulting tokens are needed while the file is parsed, which includes parsing
+ * all files it includes, so there is one resulting token list per include depth.
+ * <p>
+ * Buffers that grew unusually large are dropped after use, so one huge file doesn't pin its memory to the thread.
+ *
+ * @author Zom-B
+ */
+// Created 2026-10-19
+final class LoadContext {
+	private static final int MAX_RETAINED_TOKENS = 65536;
+	private static final int MAX_RETAINED_CHARS  = 65536;
+
+	private static final ThreadLocal<LoadContext> CONTEXTS = ThreadLocal.withInitial(LoadContext::new);
+
+	private final CharacterReader reader = new CharacterReader("", Collections.emptyList());
+
+	private List<ConfigToken> scratchTokens1 = new ArrayList<>(1024);
+	private List<ConfigToken> scratchTokens2 = new ArrayList<>(1024);
+	private StringBuilder     sb             = new StringBuilder(1024);
+
+	/**
+	 * The tokens of the files being parsed, by include depth.
+	 */
+	private final List<List<ConfigToken>> tokenLists = new ArrayList<>(8);
+	private       int                     depth      = 0;
+
+	private LoadContext() {
+	}
+
+	static LoadContext get() {
+		return CONTEXTS.get();
+	}
+
+	/**
+	 * Returns an empty token list for the next include depth. Each call must be followed by
+	 * {@link #releaseTokens()} when the tokens are no longer needed, even if an exception occurs.
+	 */
+	List<ConfigToken> acquireTokens() {
+		if (depth == tokenLists.size())
+			tokenLists.add(new ArrayList<>(1024));
+
+		return tokenLists.get(depth++);
+	}
+
+	void releaseTokens() {
+		depth--;
+		List<ConfigToken> tokens = tokenLists.get(depth);
+		if (tokens.size() > MAX_RETAINED_TOKENS)
+			tokenLists.set(depth, new ArrayList<>(1024));
+		else
+			tokens.clear();
+	}
+
+	/**
+	 * Runs the tokenizer and all lexers on the lines, appending the resulting tokens to {@code tokens}.
+	 * Malformed text, like an unclosed string, is reported as an error in the source.
+	 */
+	void tokenize(String source,
+	              List<String> lines,
+	              List<ConfigToken> tokens,
+	              @Nullable LoadStatistics.FileStatistics fileStatistics) {
+		reader.reset(source, lines);
+		try {
+			tokenize(reader, tokens, fileStatistics);
+		} catch (IllegalArgumentException ex) {
+			// The lexers already describe the location, so the exception is passed on as it is
+			ConfigSyntaxErrorEvent.emit(source, ex.getMessage());
+			throw ex;
+		} finally {
+			reader.reset("", Collections.emptyList());
+		}
+	}
+
+	/**
+	 * Runs the tokenizer and all lexers, appending the resulting tokens to {@code tokens}.
+	 *
+	 * @param fileStatistics if not {@code null}, receives the time spent in each step
+	 */
+	void tokenize(CharacterReader reader,
+	              List<ConfigToken> tokens,
+	              @Nullable LoadStatistics.FileStatistics fileStatistics) {
+		try {
+			long startTime = System.nanoTime();
+			ConfigTokenizer.tokenize(reader, scratchTokens1, sb);
+			int  rawTokenCount = scratchTokens1.size();
+			long tokenizedTime = System.nanoTime();
+			StringsLexer.process(scratchTokens1, scratchTokens2, sb);
+			scratchTokens1.clear();
+			long stringsTime = System.nanoTime();
+			CommentsLexer.process(scratchTokens2, scratchTokens1, sb);
+			scratchTokens2.clear();
+			long commentsTime = System.nanoTime();
+			KeywordLexer.process(scratchTokens1, scratchTokens2, sb);
+			long keywordsTime = System.nanoTime();
+			CleaningLexer.process(scratchTokens2, tokens);
+			long cleanedTime = System.nanoTime();
+
+			if (fileStatistics != null)
+				fileStatistics.setTokenized(rawTokenCount,
+				                            tokens.size(),
+				                            tokenizedTime - startTime,
+				                            stringsTime - tokenizedTime,
+				                            commentsTime - stringsTime,
+				                            keywordsTime - commentsTime,
+				                            cleanedTime - keywordsTime);
+		} finally {
+			if (scratchTokens1.size() > MAX_RETAINED_TOKENS || scratchTokens2.size() > MAX_RETAINED_TOKENS) {
+				scratchTokens1 = new ArrayList<>(1024);
+				scratchTokens2 = new ArrayList<>(1024);
+			} else {
+				scratchTokens1.clear();
+				scratchTokens2.clear();
+			}
+
+			if (sb.capacity() > MAX_RETAINED_CHARS)
+				sb = new StringBuilder(1024);
+		}
+	}
+}
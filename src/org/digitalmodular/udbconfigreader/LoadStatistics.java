@@ -0,0 +1,279 @@
+package org.digitalmodular.udbconfigreader;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+import org.jetbrains.annotations.Nullable;
+
+import static org.digitalmodular.utilities.ValidatorUtilities.requireNonNull;
+
+/**
+ * Collects measurements of each file involved in loading a configuration, including included files.
+ * <p>
+ * Pass an instance to {@link GameConfigurationIO#loadGameConfiguration(Path, LoadStatistics)} (or to a
+ * {@link RecursiveConfigFileLoader}), and inspect it afterwards. An instance can collect several consecutive loads,
+ * but not concurrent ones.
+ * <p>
+ * Files taken from the cache are listed too, as cache hits without measurements.
+ * Blocks of lazily loaded files are parsed on first access. The files they include (and cache hits) are added at that
+ * point, at the include depth of the block, but the parsing of the blocks themselves is not measured.
+ * Like loads, such blocks must not be accessed by other threads while the instance is in use.
+ *
+ * @author Zom-B
+ */
+// Created 2026-10-19
+public final class LoadStatistics {
+	/**
+	 * The measurements of one file. All times are in nanoseconds.
+	 */
+	public static final class FileStatistics {
+		private final Path       file;
+		private final ConfigPath section;
+		private final int        includeDepth;
+		private final boolean    cacheHit;
+
+		private long bytesRead          = 0;
+		private long readNanos          = 0;
+		private long tokenizerNanos     = 0;
+		private long stringsLexerNanos  = 0;
+		private long commentsLexerNanos = 0;
+		private long keywordLexerNanos  = 0;
+		private long cleaningLexerNanos = 0;
+		private long parseNanos         = 0;
+		private long includeNanos       = 0;
+		private long totalNanos         = 0;
+		private int  rawTokenCount      = 0;
+		private int  tokenCount         = 0;
+
+		FileStatistics(Path file, ConfigPath section, int includeDepth, boolean cacheHit) {
+			this.file = file;
+			this.section = section;
+			this.includeDepth = includeDepth;
+			this.cacheHit = cacheHit;
+		}
+
+		public Path getFile() {
+			return file;
+		}
+
+		/**
+		 * Returns the section that was loaded, or an empty path if the whole file was loaded.
+		 */
+		public ConfigPath getSection() {
+			return section;
+		}
+
+		/**
+		 * Returns {@code 0} for the loaded file, {@code 1} for files it includes, etc.
+		 */
+		public int getIncludeDepth() {
+			return includeDepth;
+		}
+
+		/**
+		 * Returns whether the file (or section) was taken from {@link ConfigFileCache}.
+		 * If so, all measurements are zero.
+		 */
+		public boolean isCacheHit() {
+			return cacheHit;
+		}
+
+		public long getBytesRead() {
+			return bytesRead;
+		}
+
+		public long getReadNanos() {
+			return readNanos;
+		}
+
+		/**
+		 * Returns the time spent in {@code ConfigTokenizer}, excluding the lexers.
+		 */
+		public long getTokenizerNanos() {
+			return tokenizerNanos;
+		}
+
+		public long getStringsLexerNanos() {
+			return stringsLexerNanos;
+		}
+
+		public long getCommentsLexerNanos() {
+			return commentsLexerNanos;
+		}
+
+		public long getKeywordLexerNanos() {
+			return keywordLexerNanos;
+		}
+
+		public long getCleaningLexerNanos() {
+			return cleaningLexerNanos;
+		}
+
+		/**
+		 * Returns the time spent parsing the tokens, excluding the time spent loading included files.
+		 */
+		public long getParseNanos() {
+			return parseNanos;
+		}
+
+		/**
+		 * Returns the time spent loading included files that weren't cached.
+		 */
+		public long getIncludeNanos() {
+			return includeNanos;
+		}
+
+		/**
+		 * Returns the time from opening the file until it was parsed, including included files.
+		 */
+		public long getTotalNanos() {
+			return totalNanos;
+		}
+
+		/**
+		 * Returns the number of tokens produced by {@code ConfigTokenizer}.
+		 */
+		public int getRawTokenCount() {
+			return rawTokenCount;
+		}
+
+		/**
+		 * Returns the number of tokens after all lexers, as seen by the parser.
+		 */
+		public int getTokenCount() {
+			return tokenCount;
+		}
+
+		void setRead(long bytesRead, long readNanos) {
+			this.bytesRead = bytesRead;
+			this.readNanos = readNanos;
+		}
+
+		void setTokenized(int rawTokenCount,
+		                  int tokenCount,
+		                  long tokenizerNanos,
+		                  long stringsLexerNanos,
+		                  long commentsLexerNanos,
+		                  long keywordLexerNanos,
+		                  long cleaningLexerNanos) {
+			this.rawTokenCount = rawTokenCount;
+			this.tokenCount = tokenCount;
+			this.tokenizerNanos = tokenizerNanos;
+			this.stringsLexerNanos = stringsLexerNanos;
+			this.commentsLexerNanos = commentsLexerNanos;
+			this.keywordLexerNanos = keywordLexerNanos;
+			this.cleaningLexerNanos = cleaningLexerNanos;
+		}
+
+		@Override
+		public String toString() {
+			String indentation = String.join("", Collections.nCopies(includeDepth, "  "));
+			String name        = section.getSegmentCount() == 0 ? file.toString() : file + " [" + section + ']';
+			if (cacheHit)
+				return indentation + name + ": cached";
+
+			return String.format("%s%s: %d bytes, %d tokens, total %.3f ms (read %.3f, tokenize %.3f, lex %.3f/%.3f/" +
+			                     "%.3f/%.3f, parse %.3f, includes %.3f)",
+			                     indentation, name, bytesRead, tokenCount, totalNanos / 1e6, readNanos / 1e6,
+			                     tokenizerNanos / 1e6, stringsLexerNanos / 1e6, commentsLexerNanos / 1e6,
+			                     keywordLexerNanos / 1e6, cleaningLexerNanos / 1e6, parseNanos / 1e6,
+			                     includeNanos / 1e6);
+		}
+	}
+
+	private final List<FileStatistics> files = new ArrayList<>(16);
+
+	/**
+	 * The files currently being parsed, innermost first, with their start times.
+	 */
+	private final Deque<FileStatistics> openFiles      = new ArrayDeque<>(8);
+	private final Deque<Long>           openFileStarts = new ArrayDeque<>(8);
+
+	/**
+	 * Returns the measurements of each file, in the order they were opened.
+	 */
+	public List<FileStatistics> getFiles() {
+		return Collections.unmodifiableList(files);
+	}
+
+	public int getCacheHitCount() {
+		int count = 0;
+		for (FileStatistics file : files)
+			if (file.isCacheHit())
+				count++;
+
+		return count;
+	}
+
+	public int getCacheMissCount() {
+		return files.size() - getCacheHitCount();
+	}
+
+	/**
+	 * Returns the time spent loading the files at include depth 0, which includes all other files.
+	 */
+	public long getTotalNanos() {
+		long total = 0;
+		for (FileStatistics file : files)
+			if (file.getIncludeDepth() == 0)
+				total += file.getTotalNanos();
+
+		return total;
+	}
+
+	public void clear() {
+		if (!openFiles.isEmpty())
+			throw new IllegalStateException("Can't clear while loading");
+
+		files.clear();
+	}
+
+	void addCacheHit(Path file, ConfigPath section, int includeDepth) {
+		files.add(new FileStatistics(requireNonNull(file, "file"), section, includeDepth, true));
+	}
+
+	/**
+	 * Starts measuring a file that is about to be read. Must be followed by
+	 * {@link #endFile(FileStatistics, long)}, even if an exception occurs.
+	 */
+	FileStatistics startFile(Path file, ConfigPath section, int includeDepth) {
+		FileStatistics fileStatistics = new FileStatistics(requireNonNull(file, "file"), section, includeDepth, false);
+		files.add(fileStatistics);
+		openFiles.push(fileStatistics);
+		openFileStarts.push(System.nanoTime());
+		return fileStatistics;
+	}
+
+	/**
+	 * @param parseNanos the time spent parsing, including included files
+	 */
+	void endFile(FileStatistics fileStatistics, long parseNanos) {
+		assert openFiles.peek() == fileStatistics;
+		openFiles.pop();
+		long totalNanos = System.nanoTime() - openFileStarts.pop();
+
+		fileStatistics.totalNanos = totalNanos;
+		fileStatistics.parseNanos = parseNanos - fileStatistics.includeNanos;
+
+		@Nullable FileStatistics includingFile = openFiles.peek();
+		if (includingFile != null)
+			includingFile.includeNanos += totalNanos;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(files.size() * 128);
+		sb.append(getClass().getSimpleName())
+		  .append(": ").append(files.size()).append(" files, ")
+		  .append(getCacheHitCount()).append(" cached, ")
+		  .append(String.format("%.3f ms", getTotalNanos() / 1e6));
+		for (FileStatistics file : files)
+			sb.append('\n').append(file);
+
+		return sb.toString();
+	}
+}
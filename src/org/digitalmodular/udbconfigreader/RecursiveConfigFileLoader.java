@@ -5,9 +5,13 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -16,12 +20,9 @@ import static java.util.logging.Level.INFO;
 
 import org.jetbrains.annotations.Nullable;
 
-import org.digitalmodular.udbconfigreader.lexer.CleaningLexer;
-import org.digitalmodular.udbconfigreader.lexer.CommentsLexer;
+import static org.digitalmodular.utilities.ValidatorUtilities.requireNonNull;
+
 import org.digitalmodular.udbconfigreader.lexer.ConfigToken;
-import org.digitalmodular.udbconfigreader.lexer.ConfigTokenizer;
-import org.digitalmodular.udbconfigreader.lexer.KeywordLexer;
-import org.digitalmodular.udbconfigreader.lexer.StringsLexer;
 import static org.digitalmodular.udbconfigreader.lexer.ConfigToken.TokenType;
 import static org.digitalmodular.udbconfigreader.lexer.ConfigToken.TokenType.STATEMENT_SEPARATOR;
 
@@ -33,6 +34,107 @@ import static org.digitalmodular.udbconfigreader.lexer.ConfigToken.TokenType.STA
  */
 // Created 2021-08-13
 public class RecursiveConfigFileLoader {
+	// Parser states
+	private static final int S_STATEMENT           = 0;
+	private static final int S_ENTRY               = 1;
+	private static final int S_VALUE               = 2;
+	private static final int S_END                 = 3;
+	private static final int S_PARAMETER           = 4;
+	private static final int S_PARAMETER_SEPARATOR = 5;
+
+	// Parser actions. Each action determines the next state.
+	private static final byte A_IGNORE              = 0;
+	private static final byte A_IDENTIFIER          = 1;
+	private static final byte A_BLOCK_END           = 2;
+	private static final byte A_DECLARE             = 3;
+	private static final byte A_ASSIGN              = 4;
+	private static final byte A_BLOCK               = 5;
+	private static final byte A_CALL                = 6;
+	private static final byte A_STRING_VALUE        = 7;
+	private static final byte A_OTHER_VALUE         = 8;
+	private static final byte A_END                 = 9;
+	private static final byte A_PARAMETER           = 10;
+	private static final byte A_PARAMETER_SEPARATOR = 11;
+	private static final byte A_CALL_END            = 12;
+
+	// Syntax errors, as the bitwise complement of the index in EXPECTED_THINGS
+	private static final byte E_IDENTIFIER      = ~0;
+	private static final byte E_ENTRY           = ~1;
+	private static final byte E_VALUE           = ~2;
+	private static final byte E_END             = ~3;
+	private static final byte E_PARAMETER       = ~4;
+	private static final byte E_SEPARATOR       = ~5;
+	private static final byte E_FUNCTION_SYNTAX = ~6;
+
+	private static final String[] EXPECTED_THINGS = {
+			"identifier",
+			"\"=\", \"{\", or \"(\" after an identifier",
+			"a string, a number, a boolean, or null",
+			"\";\"",
+			"a literal value",
+			"\",\" or \")\"",
+			"nothing"};
+
+	/**
+	 * For each state, what is being parsed when the tokens run out.
+	 */
+	private static final String[] PARSING_THINGS = {
+			"a block",
+			"a statement",
+			"a variable assignment",
+			"a statement",
+			"a function call",
+			"a function call"};
+
+	/**
+	 * The action to take for each state and {@code TokenType} (by ordinal).
+	 */
+	private static final byte[][] TRANSITIONS = new byte[S_PARAMETER_SEPARATOR + 1][TokenType.values().length];
+
+	static {
+		Arrays.fill(TRANSITIONS[S_STATEMENT], E_IDENTIFIER);
+		Arrays.fill(TRANSITIONS[S_ENTRY], E_ENTRY);
+		Arrays.fill(TRANSITIONS[S_VALUE], E_VALUE);
+		Arrays.fill(TRANSITIONS[S_END], E_END);
+		Arrays.fill(TRANSITIONS[S_PARAMETER], E_FUNCTION_SYNTAX);
+		Arrays.fill(TRANSITIONS[S_PARAMETER_SEPARATOR], E_FUNCTION_SYNTAX);
+
+		TRANSITIONS[S_STATEMENT][STATEMENT_SEPARATOR.ordinal()] = A_IGNORE;
+		TRANSITIONS[S_STATEMENT][TokenType.OTHER.ordinal()] = A_IDENTIFIER;
+		TRANSITIONS[S_STATEMENT][TokenType.BLOCK_END.ordinal()] = A_BLOCK_END;
+
+		TRANSITIONS[S_ENTRY][STATEMENT_SEPARATOR.ordinal()] = A_DECLARE;
+		TRANSITIONS[S_ENTRY][TokenType.ASSIGNMENT.ordinal()] = A_ASSIGN;
+		TRANSITIONS[S_ENTRY][TokenType.BLOCK_START.ordinal()] = A_BLOCK;
+		TRANSITIONS[S_ENTRY][TokenType.FUNCTION_START.ordinal()] = A_CALL;
+
+		TRANSITIONS[S_VALUE][TokenType.STRING.ordinal()] = A_STRING_VALUE;
+		TRANSITIONS[S_VALUE][TokenType.OTHER.ordinal()] = A_OTHER_VALUE;
+
+		TRANSITIONS[S_END][STATEMENT_SEPARATOR.ordinal()] = A_END;
+
+		TRANSITIONS[S_PARAMETER][TokenType.STRING.ordinal()] = A_PARAMETER;
+		TRANSITIONS[S_PARAMETER][TokenType.LIST_SEPARATOR.ordinal()] = E_PARAMETER;
+		TRANSITIONS[S_PARAMETER][TokenType.FUNCTION_END.ordinal()] = A_CALL_END;
+
+		TRANSITIONS[S_PARAMETER_SEPARATOR][TokenType.STRING.ordinal()] = E_SEPARATOR;
+		TRANSITIONS[S_PARAMETER_SEPARATOR][TokenType.LIST_SEPARATOR.ordinal()] = A_PARAMETER_SEPARATOR;
+		TRANSITIONS[S_PARAMETER_SEPARATOR][TokenType.FUNCTION_END.ordinal()] = A_CALL_END;
+	}
+
+	// What to undo when a block closes
+	private static final byte NO_BLOCK             = -1;
+	private static final byte F_STRUCT             = 0;
+	private static final byte F_EVENT              = 1;
+	private static final byte F_PROJECTION_PATH    = 2;
+	private static final byte F_PROJECTION_MATCHED = 4;
+	/**
+	 * The block whose contents are being parsed, as opposed to a block opened by the parsed tokens.
+	 */
+	private static final byte F_ENCLOSING          = 8;
+
+	private static final ConfigPath WHOLE_FILE = ConfigPath.compile("");
+
 	private final Pattern backslashPattern = Pattern.compile("\\\\");
 
 	/**
@@ -43,10 +145,83 @@ public class RecursiveConfigFileLoader {
 	private final Deque<Path>         fileStack         = new ArrayDeque<>(8);
 	private final Deque<ConfigStruct> configStructStack = new ArrayDeque<>(8);
 
+	/**
+	 * Section selectors of {@code include()} calls, usually repeated many times in one include tree.
+	 */
+	private final Map<String, ConfigPath> sectionPaths = new HashMap<>(16);
+
+	private final boolean                  lazyBlocks;
+	private final @Nullable LoadStatistics statistics;
+	private final ConfigFileCache          cache;
+
+	/**
+	 * The number of blocks surrounding the current statement, within the current file.
+	 */
+	private int blockDepth = 0;
+
+	/**
+	 * When parsing only one section of the current file, the path to that section. Blocks that are not on this path
+	 * are skipped.
+	 */
+	private @Nullable ConfigPath targetSection = null;
+
+	/**
+	 * When visiting a file, receives the parsed contents instead of {@code configStructStack}.
+	 */
+	private @Nullable ConfigEventHandler eventHandler = null;
+
+	/**
+	 * When loading a projection of the current file, selects the entries to keep.
+	 */
+	private @Nullable ConfigProjection projection = null;
+	/**
+	 * When loading a projection, the keys of the blocks surrounding the current statement.
+	 */
+	private final List<String> projectionPath = new ArrayList<>(8);
+	/**
+	 * When loading a projection, whether the current statement is inside a block that was selected entirely.
+	 */
+	private boolean projectionMatched = false;
+
+	public RecursiveConfigFileLoader() {
+		this(false);
+	}
+
+	/**
+	 * @param lazyBlocks When {@code true}, the top-level blocks of each file are not parsed during loading.
+	 *                   Instead, their tokens are kept and parsed when the block is first accessed.
+	 *                   Syntax errors and include errors inside those blocks surface at that point.
+	 */
+	public RecursiveConfigFileLoader(boolean lazyBlocks) {
+		this(lazyBlocks, null);
+	}
+
+	/**
+	 * @param statistics if not {@code null}, receives measurements of every file loaded by this loader.
+	 *                   With {@code lazyBlocks}, files included by a deferred block are measured
+	 *                   when the block is first accessed.
+	 */
+	public RecursiveConfigFileLoader(boolean lazyBlocks, @Nullable LoadStatistics statistics) {
+		this(lazyBlocks, statistics, ConfigFileCache.INSTANCE);
+	}
+
+	/**
+	 * @param cache the cache to take parsed files from and add them to, instead of {@link ConfigFileCache#INSTANCE}.
+	 */
+	RecursiveConfigFileLoader(boolean lazyBlocks, @Nullable LoadStatistics statistics, ConfigFileCache cache) {
+		this.lazyBlocks = lazyBlocks;
+		this.statistics = statistics;
+		this.cache = requireNonNull(cache, "cache");
+	}
+
 	public ConfigStruct loadConfigurationFile(Path file) throws IOException {
-		@Nullable ConfigStruct gameConfiguration = ConfigFileCache.INSTANCE.get(file);
-		if (gameConfiguration != null)
+		@Nullable ConfigStruct gameConfiguration = cache.get(file);
+		if (gameConfiguration != null) {
+			if (statistics != null)
+				statistics.addCacheHit(file, WHOLE_FILE, fileStack.size());
+
 			return gameConfiguration;
+		}
 
 		if (Logger.getGlobal().isLoggable(FINER))
 			Logger.getGlobal().log(INFO, "Loading configuration file: " + file.toAbsolutePath());
@@ -54,105 +229,360 @@ public class RecursiveConfigFileLoader {
 			Logger.getGlobal().log(INFO, "Loading configuration file: " + file);
 
 		gameConfiguration = new ConfigStruct(file.toString(), 16);
+		parseConfigurationFile(file, gameConfiguration, null, null);
+
+		cache.add(file, gameConfiguration);
+		return gameConfiguration;
+	}
 
+	/**
+	 * Loads only the entries of a configuration file that are selected by the projection.
+	 * Other entries and blocks are skipped without storing them.
+	 * <p>
+	 * The result is not cached, but included files are loaded (and cached) in their entirety,
+	 * and then only the selected entries are copied from them.
+	 */
+	public ConfigStruct loadConfigurationFile(Path file, ConfigProjection projection) throws IOException {
+		requireNonNull(projection, "projection");
+
+		ConfigStruct gameConfiguration = new ConfigStruct(file.toString(), 16);
+
+		@Nullable ConfigStruct cachedConfiguration = cache.get(file);
+		if (cachedConfiguration != null) {
+			if (statistics != null)
+				statistics.addCacheHit(file, WHOLE_FILE, fileStack.size());
+
+			this.projection = projection;
+			try {
+				putAllProjected(gameConfiguration, cachedConfiguration);
+			} finally {
+				this.projection = null;
+			}
+
+			return gameConfiguration;
+		}
+
+		if (Logger.getGlobal().isLoggable(FINER))
+			Logger.getGlobal().log(INFO, "Loading " + projection + " of configuration file: " +
+			                             file.toAbsolutePath());
+		else
+			Logger.getGlobal().log(INFO, "Loading " + projection + " of configuration file: " + file);
+
+		parseConfigurationFile(file, gameConfiguration, null, projection);
+		return gameConfiguration;
+	}
+
+	/**
+	 * Loads only the specified section of a configuration file, skipping all top-level blocks
+	 * (and blocks at deeper levels) that are not on the path to that section.
+	 * <p>
+	 * Sections parsed this way are cached separately. Because every such parse reads and tokenizes the entire file,
+	 * this is only done for the first section requested from a file.
+	 * Subsequent requests for other sections parse (and cache) the entire file instead.
+	 *
+	 * @return the section, or {@code null} if the file doesn't have it.
+	 */
+	private @Nullable ConfigStruct loadConfigurationSection(Path file, ConfigPath section) throws IOException {
+		if (section.getSegmentCount() == 0 || cache.contains(file))
+			return section.resolveStruct(loadConfigurationFile(file));
+
+		@Nullable ConfigStruct sectionStruct = cache.getSection(file, section);
+		if (sectionStruct != null) {
+			if (statistics != null)
+				statistics.addCacheHit(file, section, fileStack.size());
+
+			return sectionStruct;
+		}
+
+		// Another section of this file was needed before, so it's likely that more will follow
+		if (cache.hasSections(file))
+			return section.resolveStruct(loadConfigurationFile(file));
+
+		if (Logger.getGlobal().isLoggable(FINER))
+			Logger.getGlobal().log(INFO, "Loading section " + section + " of configuration file: " +
+			                             file.toAbsolutePath());
+		else
+			Logger.getGlobal().log(INFO, "Loading section " + section + " of configuration file: " + file);
+
+		ConfigStruct partialConfiguration = new ConfigStruct(file.toString(), 16);
+		parseConfigurationFile(file, partialConfiguration, section, null);
+
+		sectionStruct = section.resolveStruct(partialConfiguration);
+		if (sectionStruct != null)
+			cache.addSection(file, section, sectionStruct);
+
+		return sectionStruct;
+	}
+
+	private void parseConfigurationFile(Path file,
+	                                    ConfigStruct configuration,
+	                                    @Nullable ConfigPath section,
+	                                    @Nullable ConfigProjection fileProjection) throws IOException {
+		int                        includingBlockDepth    = blockDepth;
+		@Nullable ConfigPath       includingTargetSection = targetSection;
+		@Nullable ConfigProjection includingProjection    = projection;
 		fileStack.push(file);
-		configStructStack.push(gameConfiguration);
+		configStructStack.push(configuration);
+		blockDepth = 0;
+		targetSection = section;
+		projection = fileProjection;
 		try {
 			parseConfigurationFile(file);
 		} finally {
 			fileStack.pop();
 			configStructStack.pop();
+			blockDepth = includingBlockDepth;
+			targetSection = includingTargetSection;
+			projection = includingProjection;
 		}
-
-		ConfigFileCache.INSTANCE.add(file, gameConfiguration);
-		return gameConfiguration;
 	}
 
-	private void parseConfigurationFile(Path file) throws IOException {
+	/**
+	 * Parses a configuration file without building a {@code ConfigStruct},
+	 * reporting its contents to the specified handler instead.
+	 * <p>
+	 * Includes are reported but not followed, and the file is neither taken from nor added to the cache.
+	 */
+	public void visitConfigurationFile(Path file, ConfigEventHandler handler) throws IOException {
+		requireNonNull(file, "file");
+		requireNonNull(handler, "handler");
+
+		fileStack.push(file);
+		eventHandler = handler;
 		try {
-			List<String> lines = Files.readAllLines(file);
+			parseConfigurationFile(file);
+		} finally {
+			fileStack.pop();
+			eventHandler = null;
+		}
+	}
 
-			CharacterReader reader = new CharacterReader(file.getFileName().toString(), lines);
+	private void parseConfigurationFile(Path file) throws IOException {
+		@Nullable LoadStatistics.FileStatistics fileStatistics = null;
+		if (statistics != null)
+			fileStatistics = statistics.startFile(file, targetSection != null ? targetSection : WHOLE_FILE,
+			                                      fileStack.size() - 1);
 
-			List<ConfigToken> tokens = ConfigTokenizer.tokenize(reader);
+		ConfigFileLoadEvent event = new ConfigFileLoadEvent();
+		event.begin();
 
-			tokens = StringsLexer.process(tokens);
-			tokens = CommentsLexer.process(tokens);
-			tokens = KeywordLexer.process(tokens);
-			tokens = CleaningLexer.process(tokens);
+		long parseNanos = 0;
+		try {
+			long         startTime = System.nanoTime();
+			List<String> lines     = Files.readAllLines(file);
+			if (fileStatistics != null || event.isEnabled()) {
+				long size = Files.size(file);
+				event.size = size;
+				if (fileStatistics != null)
+					fileStatistics.setRead(size, System.nanoTime() - startTime);
+			}
 
-			parseTokens(tokens.iterator());
+			LoadContext       context = LoadContext.get();
+			List<ConfigToken> tokens  = context.acquireTokens();
+			try {
+				context.tokenize(file.getFileName().toString(), lines, tokens, fileStatistics);
+				event.tokenCount = tokens.size();
+
+				long parseStartTime = System.nanoTime();
+				try {
+					parseTokens(tokens.iterator());
+				} finally {
+					parseNanos = System.nanoTime() - parseStartTime;
+				}
+			} finally {
+				context.releaseTokens();
+			}
 		} catch (IOException ex) {
 			throw new IOException("Unable to load the game configuration file: " + file, ex);
+		} finally {
+			if (fileStatistics != null)
+				statistics.endFile(fileStatistics, parseNanos);
+
+			event.end();
+			if (event.shouldCommit()) {
+				event.file = file.toString();
+				event.section = targetSection != null ? targetSection.toString() : "";
+				event.includeDepth = fileStack.size() - 1;
+				event.commit();
+			}
 		}
 	}
 
-	public void parseTokens(Iterator<ConfigToken> tokens) {
-		while (tokens.hasNext())
-			parseStatement(tokens);
+	/**
+	 * Runs the tokenizer and all lexers, producing the tokens that {@link #parseTokens(Iterator)} expects.
+	 * Malformed text is not reported as an error in a file, as the text may be only part of one.
+	 */
+	static List<ConfigToken> tokenize(CharacterReader reader) {
+		List<ConfigToken> tokens = new ArrayList<>(1024);
+		LoadContext.get().tokenize(reader, tokens, null);
+		return tokens;
 	}
 
-	private void parseStatement(Iterator<ConfigToken> tokens) {
-		ConfigToken firstToken = tokens.next();
-
-		switch (firstToken.getTokenType()) {
-			case STATEMENT_SEPARATOR:
-				return;
-			case OTHER:
-				parseEntry(firstToken, tokens);
-				break;
-			default:
-				throwSyntaxError(firstToken, "identifier");
+	/**
+	 * Parses tokens into the specified struct, as if they were the contents of the specified file.
+	 * Includes are resolved relative to that file.
+	 */
+	void parseTokens(Path file, ConfigStruct configuration, Iterator<ConfigToken> tokens) {
+		fileStack.push(file);
+		configStructStack.push(configuration);
+		try {
+			parseTokens(tokens);
+		} finally {
+			fileStack.pop();
+			configStructStack.pop();
 		}
 	}
 
-	private void parseEntry(ConfigToken firstToken, Iterator<ConfigToken> tokens) {
-		ConfigToken token = tokens.next();
+	public void parseTokens(Iterator<ConfigToken> tokens) {
+		parse(tokens, null);
+	}
 
-		switch (token.getTokenType()) {
-			case ASSIGNMENT:
-				parseAssignment(firstToken, tokens);
-				return;
-			case FUNCTION_START:
-				parseFunction(firstToken, tokens);
-				return;
-			case BLOCK_START:
-				parseBlock(firstToken, tokens);
-				return;
-			case STATEMENT_SEPARATOR:
-				configStructStack.getFirst().put(firstToken.getText(), null);
-				return;
-			default:
-				throwSyntaxError(token, "\"=\", \"{\", or \"(\" after an identifier");
+	/**
+	 * Parses statements until the tokens run out, or, when {@code enclosingBlock} is specified,
+	 * up to and including the brace that closes that block.
+	 * <p>
+	 * This is a state machine driven by {@link #TRANSITIONS}. Nested blocks don't recurse, but push their struct
+	 * on {@code configStructStack}, and the identifier and flags of each open block are kept in local stacks.
+	 * Only includes recurse, once per included file.
+	 */
+	private void parse(Iterator<ConfigToken> iter, @Nullable ConfigToken enclosingBlock) {
+		List<ConfigToken> blockTokens = new ArrayList<>(8);
+		byte[]            blockFlags  = new byte[8];
+		if (enclosingBlock != null) {
+			blockTokens.add(enclosingBlock);
+			blockFlags[0] = F_ENCLOSING;
 		}
-	}
 
-	private void parseAssignment(ConfigToken firstToken, Iterator<ConfigToken> iter) {
-		requireHasNextToken(iter, firstToken, "a variable assignment");
-		ConfigToken token = iter.next();
-
-		switch (token.getTokenType()) {
-			case STRING:
-				configStructStack.getFirst().put(firstToken.getText(), token.getText());
-				break;
-			case OTHER:
-				if (token.getText().equalsIgnoreCase("null")) {
-					configStructStack.getFirst().put(firstToken.getText(), null);
-					break;
+		int                    state      = S_STATEMENT;
+		@Nullable ConfigToken  entryToken = null;
+		@Nullable ConfigToken  lastToken  = null;
+		@Nullable List<Object> parameters = null;
+		try {
+			while (true) {
+				if (!iter.hasNext()) {
+					if (state == S_STATEMENT && blockTokens.isEmpty())
+						return;
+
+					@Nullable ConfigToken location = state == S_STATEMENT ? blockTokens.get(blockTokens.size() - 1) :
+					                                 state == S_END ? lastToken : entryToken;
+					assert location != null;
+					throwEndOfFile(location, PARSING_THINGS[state]);
 				}
 
-				@Nullable Object value = parseValue(token.getText());
-				if (value != null) {
-					configStructStack.getFirst().put(firstToken.getText(), value);
-					break;
+				ConfigToken token  = iter.next();
+				byte        action = TRANSITIONS[state][token.getTokenType().ordinal()];
+				switch (action) {
+					case A_IGNORE:
+						break;
+					case A_IDENTIFIER:
+						entryToken = token;
+						state = S_ENTRY;
+						break;
+					case A_BLOCK_END:
+						if (blockTokens.isEmpty())
+							throwSyntaxError(token, EXPECTED_THINGS[~E_IDENTIFIER]);
+
+						byte flags = blockFlags[blockTokens.size() - 1];
+						blockTokens.remove(blockTokens.size() - 1);
+						if (flags == F_ENCLOSING)
+							return;
+
+						closeBlock(flags, true);
+						break;
+					case A_DECLARE:
+						assert entryToken != null;
+						putValue(entryToken.getText(), null);
+						state = S_STATEMENT;
+						break;
+					case A_ASSIGN:
+						state = S_VALUE;
+						break;
+					case A_BLOCK:
+						assert entryToken != null;
+						requireHasNextToken(iter, entryToken, "a block");
+						byte newFlags = openBlock(entryToken, iter);
+						if (newFlags != NO_BLOCK) {
+							if (blockTokens.size() == blockFlags.length)
+								blockFlags = Arrays.copyOf(blockFlags, blockFlags.length * 2);
+
+							blockFlags[blockTokens.size()] = newFlags;
+							blockTokens.add(entryToken);
+						}
+
+						state = S_STATEMENT;
+						break;
+					case A_CALL:
+						if (parameters == null)
+							parameters = new ArrayList<>(8);
+						else
+							parameters.clear();
+
+						state = S_PARAMETER;
+						break;
+					case A_STRING_VALUE:
+						assert entryToken != null;
+						putValue(entryToken.getText(), token.getText());
+						state = S_END;
+						break;
+					case A_OTHER_VALUE:
+						assert entryToken != null;
+						if (token.getText().equalsIgnoreCase("null")) {
+							putValue(entryToken.getText(), null);
+						} else {
+							@Nullable Object value = parseValue(token.getText());
+							if (value == null)
+								throwSyntaxError(token, EXPECTED_THINGS[~E_VALUE]);
+
+							putValue(entryToken.getText(), value);
+						}
+
+						state = S_END;
+						break;
+					case A_END:
+						state = S_STATEMENT;
+						break;
+					case A_PARAMETER:
+						assert parameters != null;
+						parameters.add(token.getText());
+						state = S_PARAMETER_SEPARATOR;
+						break;
+					case A_PARAMETER_SEPARATOR:
+						state = S_PARAMETER;
+						break;
+					case A_CALL_END:
+						assert entryToken != null && parameters != null;
+						callFunction(entryToken, parameters);
+						state = S_STATEMENT;
+						break;
+					default:
+						throwSyntaxError(token, EXPECTED_THINGS[~action]);
 				}
 
-				// fall-through
-			default:
-				throwSyntaxError(token, "a string, a number, a boolean, or null");
+				lastToken = token;
+			}
+		} finally {
+			// Only when aborted by an exception
+			for (int i = blockTokens.size() - 1; i >= 0; i--)
+				if (blockFlags[i] != F_ENCLOSING)
+					closeBlock(blockFlags[i], false);
 		}
+	}
 
-		requireNextTokenOfType(STATEMENT_SEPARATOR, iter, token);
+	private void putValue(String key, @Nullable Object value) {
+		if (eventHandler != null) {
+			eventHandler.onValue(key, value);
+			return;
+		}
+
+		if (projection != null && !projectionMatched) {
+			projectionPath.add(key);
+			boolean selected = projection.matches(projectionPath);
+			projectionPath.remove(projectionPath.size() - 1);
+			if (!selected)
+				return;
+		}
+
+		configStructStack.getFirst().put(key, value);
 	}
 
 	private static @Nullable Object parseValue(String text) {
@@ -184,153 +614,283 @@ public class RecursiveConfigFileLoader {
 		return null;
 	}
 
-	private void parseFunction(ConfigToken firstToken, Iterator<ConfigToken> iter) {
-		List<Object> parameters = new ArrayList<>(8);
-
-		boolean     requireValue = true;
-		ConfigToken token;
-		while (true) {
-			requireHasNextToken(iter, firstToken, "a function call");
-
-			token = iter.next();
-
-			switch (token.getTokenType()) {
-				case STRING:
-					if (!requireValue)
-						throwSyntaxError(token, "\",\" or \")\"");
-
-					parameters.add(token.getText());
-					break;
-				case LIST_SEPARATOR:
-					if (requireValue)
-						throwSyntaxError(token, "a literal value");
-
-					break;
-				case FUNCTION_END:
-					callFunction(firstToken, parameters);
-					return;
-				default:
-					throwSyntaxError(token, "nothing");
-			}
-
-			requireValue = !requireValue;
-		}
-	}
-
 	private void callFunction(ConfigToken firstToken, List<Object> parameters) {
 		String function = firstToken.getText();
 		assert !function.isEmpty();
 		if ("include".equals(function.toLowerCase())) {
 			callIncludeFunction(firstToken, parameters);
 		} else {
-			throw new IllegalArgumentException("Unknown function: " + function + ", at " +
-			                                   firstToken.getLocationString());
+			throwSyntaxError(firstToken, "Unknown function: " + function, null);
 		}
 	}
 
 	private void callIncludeFunction(ConfigToken firstToken, List<Object> parameters) {
 		if (parameters.isEmpty())
-			throw new IllegalArgumentException("include() is missing parameters, at " + firstToken.getLocationString());
+			throwSyntaxError(firstToken, "include() is missing parameters", null);
 
 		Object filename = parameters.get(0);
 		if (!(filename instanceof String))
-			throw new IllegalArgumentException("First parameter of include() must be a string, at " +
-			                                   firstToken.getLocationString());
+			throwSyntaxError(firstToken, "First parameter of include() must be a string", null);
 
 		Object section = parameters.size() > 1 ? parameters.get(1) : "";
 		if (!(section instanceof String))
-			throw new IllegalArgumentException("Second parameter of include() must be a string, at " +
-			                                   firstToken.getLocationString());
+			throwSyntaxError(firstToken, "Second parameter of include() must be a string", null);
 
 		String filenameString = backslashPattern.matcher((String)filename).replaceAll("/");
 
 		assert !fileStack.isEmpty();
 		Path originalFile = fileStack.getFirst();
-		Path includeFile  = originalFile.getParent().resolve(filenameString);
+		// Not getParent().resolve(), as a relative path in a zip file system may not have a parent
+		Path includeFile  = originalFile.resolveSibling(filenameString).normalize();
 
 		if (fileStack.contains(includeFile)) {
 			fileStack.stream()
 			         .map(Path::getFileName)
 			         .map(Object::toString)
 			         .collect(Collectors.joining("->"));
-			throw new IllegalArgumentException("Circular include chain detected: " + fileStack + "->" + includeFile +
-			                                   ", at " + firstToken.getLocationString());
+			throwSyntaxError(firstToken, "Circular include chain detected: " + fileStack + "->" + includeFile, null);
 		}
 
-		try {
-			ConfigStruct block = loadConfigurationFile(includeFile);
-
-			String sectionName = (String)section;
-			if (!sectionName.isEmpty()) {
-				String[] sectionNameParts = sectionName.split("\\.");
-
-				for (String sectionNamePart : sectionNameParts) {
-					@Nullable Object value = block.get(sectionNamePart);
-
-					if (!(value instanceof ConfigStruct))
-						throw new IllegalArgumentException("Include is missing requested structure, at " +
-						                                   firstToken.getLocationString());
+		ConfigPath sectionPath = getSectionPath(firstToken, (String)section);
 
-					block = (ConfigStruct)value;
-				}
-			}
+		if (eventHandler != null) {
+			eventHandler.onInclude(includeFile, sectionPath.toString());
+			return;
+		}
 
-			configStructStack.getFirst().putAll(block);
+		ConfigIncludeEvent event = new ConfigIncludeEvent();
+		event.begin();
+		try {
+			@Nullable ConfigStruct sectionBlock = loadConfigurationSection(includeFile, sectionPath);
+			if (sectionBlock == null)
+				throwSyntaxError(firstToken, "Include is missing requested structure", null);
+
+			if (projection != null && !projectionMatched)
+				putAllProjected(configStructStack.getFirst(), sectionBlock);
+			else
+				configStructStack.getFirst().putAll(sectionBlock);
 		} catch (IOException ex) {
 			throw new IllegalArgumentException("Unable to read include file: " + filename, ex);
+		} finally {
+			event.end();
+			if (event.shouldCommit()) {
+				event.location = firstToken.getLocationString();
+				event.file = includeFile.toString();
+				event.section = sectionPath.toString();
+				event.commit();
+			}
 		}
 	}
 
-	private void parseBlock(ConfigToken firstToken, Iterator<ConfigToken> iter) {
-		requireHasNextToken(iter, firstToken, "a block");
+	/**
+	 * Trailing dots in the section are ignored, so {@code "c."} selects {@code "c"}, and {@code "."} the whole file.
+	 */
+	private ConfigPath getSectionPath(ConfigToken firstToken, String section) {
+		@Nullable ConfigPath sectionPath = sectionPaths.get(section);
+		if (sectionPath != null)
+			return sectionPath;
 
-		ConfigStruct block = new ConfigStruct(firstToken.getText(), 16);
+		int end = section.length();
+		while (end > 0 && section.charAt(end - 1) == '.')
+			end--;
 
-		configStructStack.push(block);
 		try {
-			ConfigToken token;
-			while (true) {
-				token = iter.next();
-				switch (token.getTokenType()) {
-					case STATEMENT_SEPARATOR:
-						continue;
-					case OTHER:
-						parseEntry(token, iter);
-						break;
-					case BLOCK_END:
-						return;
-					default:
-						throwSyntaxError(token, "identifier");
-				}
+			sectionPath = ConfigPath.compile(section.substring(0, end));
+		} catch (IllegalArgumentException ex) {
+			throwSyntaxError(firstToken, "Malformed section in include()", ex);
+		}
+
+		sectionPaths.put(section, sectionPath);
+		return sectionPath;
+	}
+
+	/**
+	 * Handles the start of a block, after its opening brace.
+	 *
+	 * @return the flags to pass to {@link #closeBlock(byte, boolean)} at the closing brace,
+	 * or {@link #NO_BLOCK} if the block was consumed entirely.
+	 */
+	private byte openBlock(ConfigToken firstToken, Iterator<ConfigToken> iter) {
+		String name = firstToken.getText();
+
+		if (eventHandler != null) {
+			eventHandler.onBlockStart(name);
+			blockDepth++;
+			return F_EVENT;
+		}
+
+		if (targetSection != null && blockDepth < targetSection.getSegmentCount() &&
+		    !name.equals(targetSection.getSegment(blockDepth))) {
+			skipBlock(firstToken, iter, null);
+			return NO_BLOCK;
+		}
+
+		byte flags = F_STRUCT;
+		if (projection != null && !projectionMatched) {
+			projectionPath.add(name);
+			if (projection.matches(projectionPath)) {
+				projectionMatched = true;
+				flags = F_PROJECTION_PATH | F_PROJECTION_MATCHED;
+			} else if (projection.matchesBelow(projectionPath)) {
+				flags = F_PROJECTION_PATH;
+			} else {
+				projectionPath.remove(projectionPath.size() - 1);
+				skipBlock(firstToken, iter, null);
+				return NO_BLOCK;
 			}
-		} finally {
-			configStructStack.pop();
-			configStructStack.getFirst().put(firstToken.getText(), block);
 		}
+
+		// Blocks that only lie on the path to selected entries are parsed now, as the projection doesn't carry over
+		// to the deferred parse. Blocks that are selected entirely can be deferred.
+		boolean projectionPathOnly = (flags & F_PROJECTION_PATH) != 0 && (flags & F_PROJECTION_MATCHED) == 0;
+		if (lazyBlocks && blockDepth == 0 && !projectionPathOnly) {
+			try {
+				deferBlock(firstToken, iter);
+			} finally {
+				revertProjection(flags);
+			}
+
+			return NO_BLOCK;
+		}
+
+		configStructStack.push(new ConfigStruct(name, 16));
+		blockDepth++;
+		return flags;
 	}
 
-	private static void requireNextTokenOfType(TokenType tokenType, Iterator<ConfigToken> iter, ConfigToken lastToken) {
-		requireHasNextToken(iter, lastToken, "a statement");
+	/**
+	 * Handles the end of a block opened by {@link #openBlock(ConfigToken, Iterator)}.
+	 *
+	 * @param completed {@code false} when parsing is aborted by an exception.
+	 *                  The (partial) struct is still added to its parent.
+	 */
+	private void closeBlock(byte flags, boolean completed) {
+		blockDepth--;
+
+		if ((flags & F_EVENT) != 0) {
+			assert eventHandler != null;
+			if (completed)
+				eventHandler.onBlockEnd();
 
-		ConfigToken token = iter.next();
-		if (token.getTokenType() == tokenType)
 			return;
+		}
 
-		throwSyntaxError(token, "\";\"");
+		ConfigStruct block = configStructStack.pop();
+		configStructStack.getFirst().put(block.getName(), block);
+
+		revertProjection(flags);
+	}
+
+	private void revertProjection(byte flags) {
+		if ((flags & F_PROJECTION_MATCHED) != 0)
+			projectionMatched = false;
+		if ((flags & F_PROJECTION_PATH) != 0)
+			projectionPath.remove(projectionPath.size() - 1);
+	}
+
+	/**
+	 * Skips over the block by matching braces, and adds a struct that parses the skipped tokens on first access.
+	 */
+	private void deferBlock(ConfigToken firstToken, Iterator<ConfigToken> iter) {
+		List<ConfigToken> blockTokens = new ArrayList<>(64);
+		skipBlock(firstToken, iter, blockTokens);
+
+		// Snapshot of the include chain, for resolving and checking includes inside the block
+		List<Path> files = new ArrayList<>(fileStack);
+
+		ConfigStruct block = new ConfigStruct(firstToken.getText(), struct -> {
+			RecursiveConfigFileLoader loader = new RecursiveConfigFileLoader(true, statistics, cache);
+			loader.fileStack.addAll(files);
+			loader.configStructStack.push(struct);
+			loader.blockDepth = 1;
+			loader.parse(blockTokens.iterator(), firstToken);
+		});
+
+		configStructStack.getFirst().put(firstToken.getText(), block);
+	}
+
+	/**
+	 * Adds the entries of {@code source} that are selected by the projection to {@code target},
+	 * where {@code source} is located at {@code projectionPath}.
+	 */
+	private void putAllProjected(ConfigStruct target, ConfigStruct source) {
+		assert projection != null;
+
+		for (Entry<String, Object> entry : source) {
+			String           key   = entry.getKey();
+			@Nullable Object value = entry.getValue();
+
+			projectionPath.add(key);
+			try {
+				if (projection.matches(projectionPath)) {
+					target.put(key, value);
+				} else if (value instanceof ConfigStruct && projection.matchesBelow(projectionPath)) {
+					ConfigStruct block = new ConfigStruct(key, 16);
+					putAllProjected(block, (ConfigStruct)value);
+					target.put(key, block);
+				}
+			} finally {
+				projectionPath.remove(projectionPath.size() - 1);
+			}
+		}
+	}
+
+	/**
+	 * Consumes tokens up to and including the brace that closes the current block, without parsing them.
+	 *
+	 * @param skippedTokens if not {@code null}, receives the consumed tokens
+	 */
+	private static void skipBlock(ConfigToken firstToken,
+	                              Iterator<ConfigToken> iter,
+	                              @Nullable List<ConfigToken> skippedTokens) {
+		int depth = 1;
+		do {
+			requireHasNextToken(iter, firstToken, "a block");
+			ConfigToken token = iter.next();
+			if (skippedTokens != null)
+				skippedTokens.add(token);
+
+			if (token.getTokenType() == TokenType.BLOCK_START)
+				depth++;
+			else if (token.getTokenType() == TokenType.BLOCK_END)
+				depth--;
+		} while (depth > 0);
 	}
 
 	private static void requireHasNextToken(Iterator<ConfigToken> iter, ConfigToken lastToken, String parsingThing) {
 		if (iter.hasNext())
 			return;
 
-		throw new IllegalArgumentException("Unexpected End of file while parsing " + parsingThing +
-		                                   " at " + lastToken.getLocationString());
+		throwEndOfFile(lastToken, parsingThing);
+	}
+
+	private static void throwEndOfFile(ConfigToken lastToken, String parsingThing) {
+		throw configError(lastToken.getLocationString(),
+		                  "Unexpected End of file while parsing " + parsingThing + " at " +
+		                  lastToken.getLocationString(),
+		                  null);
 	}
 
 	private static void throwSyntaxError(ConfigToken token, String expectedThing) {
-		throw new IllegalArgumentException("Syntax error at " + token.getLocationString() +
-		                                   ". Expecting " + expectedThing +
-		                                   ", but found: \"" + token.getEscapedText() +
-		                                   "\" (" + token.getTokenType() + ')');
+		throw configError(token.getLocationString(),
+		                  "Syntax error at " + token.getLocationString() +
+		                  ". Expecting " + expectedThing +
+		                  ", but found: \"" + token.getEscapedText() +
+		                  "\" (" + token.getTokenType() + ')',
+		                  null);
+	}
+
+	private static void throwSyntaxError(ConfigToken token, String message, @Nullable Throwable cause) {
+		throw configError(token.getLocationString(), message + ", at " + token.getLocationString(), cause);
+	}
+
+	/**
+	 * Creates the exception for an error in the contents of a configuration file. All such errors go through here,
+	 * so each one is recorded as a {@link ConfigSyntaxErrorEvent}, except those thrown by the lexers, which are
+	 * recorded where the file is tokenized.
+	 */
+	static IllegalArgumentException configError(String location, String message, @Nullable Throwable cause) {
+		ConfigSyntaxErrorEvent.emit(location, message);
+		return new IllegalArgumentException(message, cause);
 	}
 }
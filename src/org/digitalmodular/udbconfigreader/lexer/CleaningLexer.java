@@ -23,8 +23,13 @@ public final class CleaningLexer {
 	}
 
 	public static List<ConfigToken> process(Collection<ConfigToken> tokens) {
-		List<ConfigToken> processedTokens = new ArrayList<>(tokens.size());
+		return process(tokens, new ArrayList<>(tokens.size()));
+	}
 
+	/**
+	 * Appends the processed tokens to {@code processedTokens}, which can be a reused list.
+	 */
+	public static List<ConfigToken> process(Collection<ConfigToken> tokens, List<ConfigToken> processedTokens) {
 		for (ConfigToken token : tokens) {
 			ConfigToken.TokenType tokenType = token.getTokenType();
 
@@ -34,11 +34,19 @@ public final class CommentsLexer {
 	}
 
 	public static List<ConfigToken> process(Collection<ConfigToken> tokens) {
-		List<ConfigToken> processedTokens = new ArrayList<>(tokens.size());
+		return process(tokens, new ArrayList<>(tokens.size()), new StringBuilder(1024));
+	}
 
+	/**
+	 * Appends the processed tokens to {@code processedTokens}, using {@code commentText} as working space.
+	 * Both can be reused.
+	 */
+	public static List<ConfigToken> process(Collection<ConfigToken> tokens,
+	                                        List<ConfigToken> processedTokens,
+	                                        StringBuilder commentText) {
 		CommentType           commentType       = CommentType.NONE;
-		StringBuilder         commentText       = new StringBuilder(1024);
 		@Nullable ConfigToken firstCommentToken = null;
+		commentText.setLength(0);
 
 		for (ConfigToken token : tokens) {
 			ConfigToken.TokenType tokenType = token.getTokenType();
@@ -41,10 +41,15 @@ public final class ConfigTokenizer {
 	}
 
 	public static List<ConfigToken> tokenize(CharacterReader reader) {
-		List<ConfigToken> tokens = new ArrayList<>(1024);
+		return tokenize(reader, new ArrayList<>(1024), new StringBuilder(40));
+	}
 
-		StringBuilder       sb        = new StringBuilder(40);
+	/**
+	 * Appends the tokens to {@code tokens}, using {@code sb} as working space. Both can be reused.
+	 */
+	public static List<ConfigToken> tokenize(CharacterReader reader, List<ConfigToken> tokens, StringBuilder sb) {
 		@Nullable TokenType tokenType = null;
+		sb.setLength(0);
 
 		while (true) {
 			int ch = reader.nextChar();
@@ -28,10 +28,18 @@ public final class KeywordLexer {
 	}
 
 	public static List<ConfigToken> process(Collection<ConfigToken> tokens) {
-		List<ConfigToken> processedTokens = new ArrayList<>(tokens.size());
+		return process(tokens, new ArrayList<>(tokens.size()), new StringBuilder(40));
+	}
 
-		StringBuilder         sb                = new StringBuilder(40);
+	/**
+	 * Appends the processed tokens to {@code processedTokens}, using {@code sb} as working space.
+	 * Both can be reused.
+	 */
+	public static List<ConfigToken> process(Collection<ConfigToken> tokens,
+	                                        List<ConfigToken> processedTokens,
+	                                        StringBuilder sb) {
 		@Nullable ConfigToken firstKeywordToken = null;
+		sb.setLength(0);
 
 		for (ConfigToken token : tokens) {
 			TokenType tokenType = token.getTokenType();
@@ -29,26 +29,33 @@ public final class StringsLexer {
 	}
 
 	public static List<ConfigToken> process(Collection<ConfigToken> tokens) {
-		List<ConfigToken> processedTokens = new ArrayList<>(tokens.size());
+		return process(tokens, new ArrayList<>(tokens.size()), new StringBuilder(80));
+	}
 
+	/**
+	 * Appends the processed tokens to {@code processedTokens}, using {@code stringContents} as working space.
+	 * Both can be reused.
+	 */
+	public static List<ConfigToken> process(Collection<ConfigToken> tokens,
+	                                        List<ConfigToken> processedTokens,
+	                                        StringBuilder stringContents) {
 		@Nullable ConfigToken firstStringToken = null;
-		StringBuilder         stringContents   = new StringBuilder(80);
-		@Nullable ConfigToken lastToken        = null;
+		stringContents.setLength(0);
+
+		// Whether the contents so far end with an odd number of backslashes, so the next character is escaped
+		boolean escaping = false;
 
 		for (ConfigToken token : tokens) {
 			if (firstStringToken != null) {
-				if (token.getTokenType() == STRING_DELIMITER) {
-					assert lastToken != null;
-					if (lastToken.getText().endsWith("\\")) {
-						stringContents.append(token.getText());
-					} else {
-						unEscape(stringContents, firstStringToken);
-						processedTokens.add(firstStringToken.replace(STRING, stringContents.toString()));
-						stringContents.setLength(0);
-						firstStringToken = null;
-					}
+				if (token.getTokenType() == STRING_DELIMITER && !escaping) {
+					unEscape(stringContents, firstStringToken);
+					processedTokens.add(firstStringToken.replace(STRING, stringContents.toString()));
+					stringContents.setLength(0);
+					firstStringToken = null;
 				} else {
-					stringContents.append(token.getText());
+					String text = token.getText();
+					stringContents.append(text);
+					escaping = endsWithEscape(text, escaping);
 				}
 			} else {
 				if (token.getTokenType() == STRING_DELIMITER)
@@ -56,7 +63,6 @@ public final class StringsLexer {
 				else
 					processedTokens.add(token);
 			}
-			lastToken = token;
 		}
 
 		if (firstStringToken != null)
@@ -65,40 +71,59 @@ public final class StringsLexer {
 		return processedTokens;
 	}
 
-	private static void unEscape(StringBuilder sb, ConfigToken token) {
-		for (int i = 0; i < sb.length(); i++) {
-			char ch = sb.charAt(i);
+	/**
+	 * Returns whether text that ends with {@code text} ends with an unpaired backslash.
+	 *
+	 * @param escaping whether the text before {@code text} ends with an unpaired backslash.
+	 */
+	private static boolean endsWithEscape(String text, boolean escaping) {
+		int i = text.length() - 1;
+		while (i >= 0 && text.charAt(i) == '\\')
+			i--;
 
-			if (ch == '\\') {
-				int remaining = sb.length() - i - 1;
-				if (remaining == 0)
-					continue;
+		int trailingBackslashes = text.length() - 1 - i;
+		if (i < 0) // Only backslashes; they continue the run before them
+			return escaping ^ ((trailingBackslashes & 1) != 0);
 
-				char nextCh = sb.charAt(i + 1);
+		return (trailingBackslashes & 1) != 0;
+	}
+
+	/**
+	 * Replaces escape sequences in-place, in a single pass.
+	 * Characters are copied from a read position to a write position that falls behind by one for each escape.
+	 */
+	private static void unEscape(StringBuilder sb, ConfigToken token) {
+		int length = sb.length();
+		int write  = 0;
+		for (int read = 0; read < length; read++) {
+			char ch = sb.charAt(read);
+
+			if (ch == '\\' && read + 1 < length) {
+				char nextCh = sb.charAt(read + 1);
 
-				int escapeLen = 1; // unless overridden below
 				switch (nextCh) {
 					case '\\':
 						ch = '\\';
+						read++;
 						break;
 					case '"':
 						ch = '"';
+						read++;
 						break;
 					case 'n':
 						ch = '\n';
+						read++;
 						break;
 					default:
 						Logger.getGlobal()
-						      .log(WARNING, "Probable unimplemented escape in " + token.getLocationString(i) +
-						                    ": " + sb.substring(i));
-						escapeLen = 0;
-				}
-
-				if (escapeLen > 0) {
-					sb.setCharAt(i, ch);
-					sb.delete(i + 1, i + escapeLen + 1);
+						      .log(WARNING, "Probable unimplemented escape in " + token.getLocationString(read + 1) +
+						                    ": " + sb.substring(read));
 				}
 			}
+
+			sb.setCharAt(write++, ch);
 		}
+
+		sb.setLength(write);
 	}
 }
@@ -0,0 +1,130 @@
+package org.digitalmodular.udbconfigreader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Zom-B
+ */
+// Created 2026-10-19
+class IncrementalConfigSessionTest {
+	private static final String TEXT = "// Game configuration\n" +
+	                                   "type = \"Doom: Doom 2\";\n" +
+	                                   "game = \"doom2\"; /* block comment */\n" +
+	                                   "include(\"things.cfg\");\n" +
+	                                   "path = \"a\\\\b\\\"c\\nd\";\n" +
+	                                   "multi = \"line one\n" +
+	                                   "line two\";\n" +
+	                                   "thingtypes\n" +
+	                                   "{\n" +
+	                                   "\tinclude(\"things.cfg\", \"thing\");\n" +
+	                                   "\tmonsters\n" +
+	                                   "\t{\n" +
+	                                   "\t\ttitle = \"Monsters\";\n" +
+	                                   "\t\t3004 { title = \"Zombieman\"; width = 20; }\n" +
+	                                   "\t\t9 { title = \"Shotgun guy\"; }\n" +
+	                                   "\t}\n" +
+	                                   "}\n" +
+	                                   "scale = 1.5f;\n" +
+	                                   "flag = true;\n";
+
+	/**
+	 * Fragments that open and close strings, comments, blocks, and includes, in and out of context.
+	 */
+	private static final String[] SNIPPETS = {
+			"\"", "{", "}", ";", "/*", "*/", "//", "\n", " ", "x", "= 5;", "\\", "()", "9", "title", "\"\n", "\\\"",
+			"// \"", "/* \" */", "k = \"s\n", "q {", "} }", "b { c = 1; }", "z { y { } }",
+			"a { b { c { d = \"x\"; } e = 2; } }", "x { // \"a\n\"b\n}",
+			"include(\"things.cfg\");", "w { include(\"things.cfg\", \"thing\"); }"};
+
+	@TempDir
+	Path directory;
+
+	private Path file;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		Files.writeString(directory.resolve("things.cfg"), "thing { title = \"Thing\"; size = 16; }\nother = 1;\n");
+		file = directory.resolve("game.cfg");
+	}
+
+	@Test
+	void keepsStatementsAroundUnclosedString() {
+		IncrementalConfigSession session = new IncrementalConfigSession(file, "a = 1; b { c = 2; } d = 3;");
+		session.applyEdit(session.getText().length(), 0, "e = \"abc");
+
+		ConfigStruct configuration = session.getConfiguration();
+		assertTrue(configuration.containsKey("a"));
+		assertTrue(configuration.containsKey("b"));
+		assertTrue(configuration.containsKey("d"));
+		assertFalse(configuration.containsKey("e"));
+		assertEquals(List.of("Unclosed string literal at game.cfg:1:31"), messages(session.getErrors()));
+		assertSameAsFreshSession(session);
+	}
+
+	@Test
+	void readsIncludedFilesOnce() throws IOException {
+		IncrementalConfigSession session = new IncrementalConfigSession(file, "include(\"things.cfg\");");
+		Files.delete(directory.resolve("things.cfg"));
+		session.applyEdit(0, 0, " ");
+
+		assertTrue(session.getErrors().isEmpty());
+		assertTrue(session.getConfiguration().containsKey("thing"));
+	}
+
+	@ParameterizedTest
+	@ValueSource(longs = {1, 2, 3, 4})
+	void givesSameResultsAsFreshSession(long seed) {
+		Random random = new Random(seed);
+
+		for (int round = 0; round < 25; round++) {
+			IncrementalConfigSession session = new IncrementalConfigSession(file, TEXT);
+
+			for (int i = 0; i < 40; i++) {
+				String text          = session.getText();
+				int    offset        = random.nextInt(text.length() + 1);
+				int    removedLength = random.nextInt(3) == 0 ? Math.min(random.nextInt(8), text.length() - offset) : 0;
+				String insertedText  = random.nextInt(4) == 0 ? "" : SNIPPETS[random.nextInt(SNIPPETS.length)];
+
+				session.applyEdit(offset, removedLength, insertedText);
+				assertSameAsFreshSession(session);
+
+				if (random.nextInt(3) == 0) {
+					session.applyEdit(offset, insertedText.length(), text.substring(offset, offset + removedLength));
+					assertEquals(text, session.getText());
+					assertSameAsFreshSession(session);
+				}
+			}
+		}
+	}
+
+	private void assertSameAsFreshSession(IncrementalConfigSession session) {
+		IncrementalConfigSession fresh = new IncrementalConfigSession(file, session.getText());
+
+		assertEquals(messages(fresh.getErrors()), messages(session.getErrors()), session::getText);
+		assertEquals(fresh.getConfiguration().toString(), session.getConfiguration().toString(), session::getText);
+		assertTrue(ConfigDiff.diff(fresh.getConfiguration(), session.getConfiguration()).isEmpty(), session::getText);
+	}
+
+	private static List<String> messages(List<RuntimeException> errors) {
+		List<String> messages = new ArrayList<>(errors.size());
+		for (RuntimeException error : errors)
+			messages.add(error.getMessage());
+
+		return messages;
+	}
+}